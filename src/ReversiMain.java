@@ -1,13 +1,25 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 
 import controller.AIPlayer;
 import controller.Player;
 import controller.ReversiController;
 import controller.StratagyAdapter;
+import controller.aistrat.AlphaBeta;
 import controller.aistrat.AvoidCorners;
+import controller.aistrat.CachingStrategy;
 import controller.aistrat.CaptureCorners;
 import controller.aistrat.CaptureMost;
+import controller.aistrat.EndgameSolver;
+import controller.aistrat.IterativeDeepening;
+import controller.aistrat.MonteCarloTreeSearch;
+import controller.aistrat.NnueEvaluator;
+import controller.aistrat.OpeningBook;
+import controller.aistrat.ParallelSearch;
+import controller.aistrat.PatternEvaluator;
 import controller.aistrat.ReversiStratagy;
+import controller.aistrat.TranspositionTable;
 import controller.aistrat.TryTwo;
 import model.Board;
 import model.Disc;
@@ -28,6 +40,9 @@ import view.SquareReversiFrame;
  * Main class used to run our GUI - passes through a ReadOnly version of Reversi to display.
  */
 public final class ReversiMain {
+  // the most moves an ai player asked to cache its moves remembers
+  private static final int CACHED_MOVES = 100000;
+
   /**
    * Used to initialize the frame based on the given arguments.
    */
@@ -85,8 +100,13 @@ public final class ReversiMain {
             nextplayer = false;
           }
         }
+        boolean ponder1 = strats.remove("ponder");
+        boolean cache1 = strats.remove("cache");
         ReversiStratagy strat1 = getStrat(strats);
-        p1 = new AIPlayer(Disc.BLACK, strat1);
+        if (cache1 && strat1 != null) {
+          strat1 = new CachingStrategy(strat1, CACHED_MOVES);
+        }
+        p1 = new AIPlayer(Disc.BLACK, strat1, ponder1);
       } else {
         System.out.println("First Player Input Error");
       }
@@ -110,8 +130,13 @@ public final class ReversiMain {
             nextplayer2 = false;
           }
         }
+        boolean ponder2 = strats2.remove("ponder");
+        boolean cache2 = strats2.remove("cache");
         ReversiStratagy strat2 = getStrat(strats2);
-        p2 = new AIPlayer(Disc.WHITE, strat2);
+        if (cache2 && strat2 != null) {
+          strat2 = new CachingStrategy(strat2, CACHED_MOVES);
+        }
+        p2 = new AIPlayer(Disc.WHITE, strat2, ponder2);
       } else {
         System.out.println("Second Player Input Error");
       }
@@ -178,6 +203,7 @@ public final class ReversiMain {
     ReversiStratagy captureCorners = new CaptureCorners();
     ReversiStratagy captureMost = new CaptureMost();
     ReversiStratagy avoidCorners = new AvoidCorners();
+    ReversiStratagy alphaBeta = new AlphaBeta(6);
     ReversiStratagy avoidTilesNextToCorners =
             new StratagyAdapter(
                     new FallableInfallablePairStrategy(
@@ -196,6 +222,22 @@ public final class ReversiMain {
         finalStrat = captureMost;
       } else if (strats.get(0).equals("avoidcorners")) {
         finalStrat = avoidCorners;
+      } else if (strats.get(0).equals("alphabeta")) {
+        finalStrat = alphaBeta;
+      } else if (strats.get(0).equals("timed")) {
+        finalStrat = new IterativeDeepening(1000);
+      } else if (strats.get(0).equals("parallel")) {
+        finalStrat = parallelSearch();
+      } else if (strats.get(0).equals("mcts")) {
+        finalStrat = treeSearch();
+      } else if (strats.get(0).equals("patterns")) {
+        finalStrat = patternSearch();
+      } else if (strats.get(0).equals("network")) {
+        finalStrat = networkSearch();
+      } else if (strats.get(0).equals("endgame")) {
+        finalStrat = new EndgameSolver(new IterativeDeepening(1000));
+      } else if (strats.get(0).equals("book")) {
+        finalStrat = openingBook();
       } else if (strats.get(0).equals("avoidtilesnexttocorners")) {
         finalStrat = avoidTilesNextToCorners;
       } else if (strats.get(0).equals("minimax")) {
@@ -222,6 +264,22 @@ public final class ReversiMain {
         finalStrat = new TryTwo(finalStrat, captureMost);
       } else if (strats.get(0).equals("avoidcorners")) {
         finalStrat = new TryTwo(finalStrat, avoidCorners);
+      } else if (strats.get(0).equals("alphabeta")) {
+        finalStrat = new TryTwo(finalStrat, alphaBeta);
+      } else if (strats.get(0).equals("timed")) {
+        finalStrat = new TryTwo(finalStrat, new IterativeDeepening(1000));
+      } else if (strats.get(0).equals("parallel")) {
+        finalStrat = new TryTwo(finalStrat, parallelSearch());
+      } else if (strats.get(0).equals("mcts")) {
+        finalStrat = new TryTwo(finalStrat, treeSearch());
+      } else if (strats.get(0).equals("patterns")) {
+        finalStrat = new TryTwo(finalStrat, patternSearch());
+      } else if (strats.get(0).equals("network")) {
+        finalStrat = new TryTwo(finalStrat, networkSearch());
+      } else if (strats.get(0).equals("endgame")) {
+        finalStrat = new TryTwo(finalStrat, new EndgameSolver(new IterativeDeepening(1000)));
+      } else if (strats.get(0).equals("book")) {
+        finalStrat = new TryTwo(finalStrat, openingBook());
       } else if (strats.get(0).equals("avoidtilesnexttocorners")) {
         finalStrat = new TryTwo(finalStrat, avoidTilesNextToCorners);
       } else if (strats.get(0).equals("minimax")) {
@@ -238,4 +296,69 @@ public final class ReversiMain {
     }
     return finalStrat;
   }
+
+  /**
+   * Builds the parallel search strategy, one thread per core with a one second budget. Built
+   * only when asked for, as it holds its own thread pool and transposition table.
+   *
+   * @return The parallel search strategy.
+   */
+  private static ReversiStratagy parallelSearch() {
+    return new ParallelSearch(Runtime.getRuntime().availableProcessors(), 1000);
+  }
+
+  /**
+   * Builds the timed search scoring positions by pattern tables instead of disc counts, with a
+   * one second budget. Tuned weight files in the working directory are used for the boards they
+   * were tuned on.
+   *
+   * @return The pattern search strategy.
+   */
+  private static ReversiStratagy patternSearch() {
+    return new IterativeDeepening(1000, 64, new PatternEvaluator(Paths.get(".")),
+            new TranspositionTable(16));
+  }
+
+  /**
+   * Builds the timed search scoring positions by the network in the file "evaluation.network"
+   * in the working directory, with a one second budget. Boards the network wasn't trained for,
+   * or every board if there is no readable network, are scored like the pattern search does.
+   *
+   * @return The network search strategy.
+   */
+  private static ReversiStratagy networkSearch() {
+    try {
+      return new IterativeDeepening(1000, 64, new NnueEvaluator(Paths.get("evaluation.network"),
+              new PatternEvaluator(Paths.get("."))), new TranspositionTable(16));
+    } catch (IOException e) {
+      System.out.println("No network: " + e.getMessage());
+      return patternSearch();
+    }
+  }
+
+  /**
+   * Opens the opening book "opening.book" in the working directory, playing like the endgame
+   * strategy once out of the book. Without a readable book it plays like the endgame strategy
+   * from the first move.
+   *
+   * @return The opening book strategy.
+   */
+  private static ReversiStratagy openingBook() {
+    ReversiStratagy fallback = new EndgameSolver(new IterativeDeepening(1000));
+    try {
+      return new OpeningBook(Paths.get("opening.book"), fallback);
+    } catch (IOException e) {
+      System.out.println("No opening book: " + e.getMessage());
+      return fallback;
+    }
+  }
+
+  /**
+   * Builds the Monte Carlo tree search strategy, one thread per core with a one second budget.
+   *
+   * @return The Monte Carlo tree search strategy.
+   */
+  private static ReversiStratagy treeSearch() {
+    return new MonteCarloTreeSearch(Runtime.getRuntime().availableProcessors(), 1000);
+  }
 }
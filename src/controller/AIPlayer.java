@@ -1,20 +1,45 @@
 package controller;
 
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+import model.BoardSnapshot;
 import model.Coordinate;
 import model.Position;
 import model.Reversi;
 import model.Disc;
 import controller.aistrat.ReversiStratagy;
+import controller.aistrat.SearchBoards;
 import provider.strategies.InFallableReversiStrategy;
 
 /**
  * The {@code AIPlayer} class represents an AI player in the Reversi game.
  * It implements the {@link Player} interface and provides methods for making moves
  * based on a specified strategy.
+ *
+ * <p>An AI player can also ponder: once it has moved, it works out in the background its answer
+ * to each reply the opponent may make, starting with the reply its own strategy would make in
+ * their place, and keeps those answers by the hash of the position they are for. When its turn
+ * comes around on a position it has already answered, it plays that answer at once. The
+ * background work runs on a private copy of the game and is interrupted as soon as the player's
+ * turn comes; the strategy is never used by both at once, so a strategy that cannot be stopped
+ * early is waited for.
  */
 public class AIPlayer implements Player {
   private final Disc playerDisc;
   private final ReversiStratagy strategy;
+  private final boolean ponder;
+  private final Map<Long, Position> pondered = new ConcurrentHashMap<Long, Position>();
+  // held while the strategy is choosing a move, by the player or by the background work
+  private final ReentrantLock thinking = new ReentrantLock();
+  private ExecutorService ponderer;
+  private Future<?> pondering;
+  private int ponderHits;
 
   /**
    * Constructs an {@code AIPlayer} with the specified player disc and strategy.
@@ -24,8 +49,22 @@ public class AIPlayer implements Player {
    * @param strategy   The {@link ReversiStratagy} defining the strategy used by this AI player.
    */
   public AIPlayer(Disc playerDisc, ReversiStratagy strategy) {
+    this(playerDisc, strategy, false);
+  }
+
+  /**
+   * Constructs an {@code AIPlayer} that may think about the opponent's replies while it waits
+   * for them.
+   *
+   * @param playerDisc The {@link Disc} representing the color of the AI player's pieces
+   *                   (BLACK or WHITE).
+   * @param strategy   The {@link ReversiStratagy} defining the strategy used by this AI player.
+   * @param ponder     Whether to search the opponent's replies during their turn.
+   */
+  public AIPlayer(Disc playerDisc, ReversiStratagy strategy, boolean ponder) {
     this.playerDisc = playerDisc;
     this.strategy = strategy;
+    this.ponder = ponder;
   }
 
   /**
@@ -44,11 +83,23 @@ public class AIPlayer implements Player {
   public AIPlayer(Disc playerDisc, InFallableReversiStrategy infallibleStrategy) {
     this.playerDisc = playerDisc;
     this.strategy = new StratagyAdapter(infallibleStrategy);
+    this.ponder = false;
   }
 
   @Override
   public void makeAMove(Reversi model, Position coordinate) {
-    Position c1 = strategy.chooseMove(model, playerDisc);
+    stopPondering();
+    Position c1 = pondered.get(model.getPositionHash());
+    if (c1 != null) {
+      ponderHits++;
+    } else {
+      thinking.lock();
+      try {
+        c1 = strategy.chooseMove(model, playerDisc);
+      } finally {
+        thinking.unlock();
+      }
+    }
     if (!model.isGameOver()
             && (c1.equals(new Coordinate(model.getSize(), model.getSize())))) {
       model.passTurn();
@@ -56,6 +107,88 @@ public class AIPlayer implements Player {
     if (model.validMove(c1, playerDisc)) {
       model.makeMove(c1);
     }
+    if (ponder && !model.isGameOver() && model.currentColor() != playerDisc) {
+      startPondering(model.snapshot());
+    }
+  }
+
+  /**
+   * Starts searching the opponent's replies to the given position in the background, throwing
+   * away the answers kept for the previous position.
+   */
+  private void startPondering(BoardSnapshot snapshot) {
+    pondered.clear();
+    if (ponderer == null) {
+      ponderer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "ponder-" + playerDisc);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    pondering = ponderer.submit(() -> {
+      thinking.lock();
+      try {
+        ponderReplies(SearchBoards.fromSnapshot(snapshot));
+      } finally {
+        thinking.unlock();
+      }
+    });
+  }
+
+  private void ponderReplies(Reversi board) {
+    ArrayList<Position> replies = board.getPossibleMoves();
+    if (replies.isEmpty() || Thread.currentThread().isInterrupted()) {
+      return;
+    }
+    // the reply the strategy would make for the opponent is the most likely, so it goes first
+    Position likely = strategy.chooseMove(board, board.currentColor());
+    if (replies.remove(likely)) {
+      replies.add(0, likely);
+    }
+    for (Position reply : replies) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      board.makeMove(reply);
+      Position answer = strategy.chooseMove(board, playerDisc);
+      // an interrupted search may have stopped short, so its answer is not kept
+      if (!Thread.currentThread().isInterrupted()) {
+        pondered.put(board.getPositionHash(), answer);
+      }
+      board.undoMove();
+    }
+  }
+
+  /**
+   * Stops any background search of the opponent's replies, waiting for the strategy to return
+   * if it is in the middle of a move. Answers already found are kept until the player moves.
+   */
+  public void stopPondering() {
+    if (pondering != null) {
+      pondering.cancel(true);
+      pondering = null;
+      // the cancelled work still holds the lock until the strategy it interrupted returns
+      thinking.lock();
+      thinking.unlock();
+    }
+  }
+
+  /**
+   * Checks whether the player is still searching the opponent's replies in the background.
+   *
+   * @return True if the background search is running, otherwise false.
+   */
+  public boolean isPondering() {
+    return pondering != null && !pondering.isDone();
+  }
+
+  /**
+   * Retrieves how many of the player's moves were answered from the background search.
+   *
+   * @return The number of moves played without searching.
+   */
+  public int getPonderHits() {
+    return ponderHits;
   }
 
   @Override
@@ -5,13 +5,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import model.Board;
 import model.Cell;
 import model.Coordinate;
 import model.Disc;
+import model.FlatHexBoard;
 import model.Position;
 import model.Reversi;
-import model.Turn;
 import provider.model.HexCoord;
 import provider.model.HexDirection;
 import provider.model.HexagonTile;
@@ -60,7 +59,7 @@ public class BoardAdapter implements IBoard {
         throw new IllegalArgumentException("Invalid disc");
       }
       int s = -(coord.getFirstCoordinate()) - (coord.getSecondCoordinate());
-      outputMap.put(new HexCoord(coord.getFirstCoordinate(), coord.getSecondCoordinate(), s),
+      outputMap.put(HexCoord.of(coord.getFirstCoordinate(), coord.getSecondCoordinate(), s),
               new HexagonTile(ownership));
     }
 
@@ -100,20 +99,6 @@ public class BoardAdapter implements IBoard {
 
   @Override
   public IBoard clone() {
-    // Create a deep copy of the Reversi board
-    HashMap<Position, Cell> boardCopy = new HashMap<>();
-    for (Position coor : currentBoard.getMap().keySet()) {
-      boardCopy.put(new Coordinate(coor.getFirstCoordinate(), coor.getSecondCoordinate()),
-              new Cell(currentBoard.getMap().get(coor).getContent()));
-    }
-    // Create a new Reversi instance with the copied board state
-    Turn t = null;
-    if (currentBoard.currentColor().equals(Disc.BLACK)) {
-      t = Turn.BLACK;
-    } else {
-      t = Turn.WHITE;
-    }
-    Reversi clonedBoard = new Board(currentBoard.getSize(), boardCopy, t);
-    return new BoardAdapter(clonedBoard);
+    return new BoardAdapter(new FlatHexBoard(currentBoard.snapshot()));
   }
 }
@@ -1,19 +1,14 @@
 package controller;
 
-import java.util.HashMap;
-
-import model.Board;
-import model.Cell;
 import model.Coordinate;
 import model.Disc;
-import model.Position;
+import model.FlatHexBoard;
 import model.Reversi;
 import provider.controller.ModelTurnListener;
 import provider.model.HexCoord;
 import provider.model.IBoard;
 import provider.model.PlayerOwnership;
 import provider.model.ReversiMutableModel;
-import model.Turn;
 
 /**
  * The {@code BoardAdapter2} class is an adapter that conforms a {@link Reversi} board to the.
@@ -103,22 +98,7 @@ public class BoardAdapter2 implements ReversiMutableModel {
 
   @Override
   public ReversiMutableModel cloneModel() {
-    // Create a deep copy of the Reversi board
-    HashMap<Position, Cell> boardCopy = new HashMap<>();
-    for (Position coor : board.getMap().keySet()) {
-      boardCopy.put(new Coordinate(coor.getFirstCoordinate(), coor.getSecondCoordinate()),
-              new Cell(board.getMap().get(coor).getContent()));
-    }
-
-    // Create a new Reversi instance with the copied board state
-    Turn t;
-    if (board.currentColor().equals(Disc.BLACK)) {
-      t = Turn.BLACK;
-    } else {
-      t = Turn.WHITE;
-    }
-    Reversi clonedBoard = new Board(board.getSize(), boardCopy, t);
-    return new BoardAdapter2(clonedBoard);
+    return new BoardAdapter2(new FlatHexBoard(board.snapshot()));
   }
 
   @Override
@@ -1,14 +1,9 @@
 package controller;
 
-import java.util.HashMap;
-
-import model.Board;
-import model.Cell;
 import model.Coordinate;
 import model.Disc;
-import model.Position;
+import model.FlatHexBoard;
 import model.Reversi;
-import model.Turn;
 import provider.model.HexCoord;
 import provider.model.IBoard;
 import provider.model.PlayerOwnership;
@@ -70,24 +65,7 @@ public class ReversiModelAdapter implements ReversiReadOnlyModel {
 
   @Override
   public ReversiMutableModel cloneModel() {
-    // Create a deep copy of the Reversi board
-    HashMap<Position, Cell> boardCopy = new HashMap<>();
-    for (Position coor : currentModel.getMap().keySet()) {
-      boardCopy.put(new Coordinate(coor.getFirstCoordinate(), coor.getSecondCoordinate()),
-              new Cell(currentModel.getMap().get(coor).getContent()));
-    }
-    // Create a new Reversi instance with the copied board state
-
-    Turn t = null;
-    if (currentModel.currentColor().equals(Disc.BLACK)) {
-      t = Turn.BLACK;
-    } else {
-      t = Turn.WHITE;
-    }
-
-
-    Reversi clonedBoard = new Board(currentModel.getSize(), boardCopy, t);
-    return new BoardAdapter2(clonedBoard);
+    return new BoardAdapter2(new FlatHexBoard(currentModel.snapshot()));
   }
 
   @Override
@@ -0,0 +1,100 @@
+package controller.aistrat;
+
+import model.Disc;
+import model.Position;
+import model.ReversiReadOnly;
+
+/**
+ * A lookahead strategy that searches every line of play a fixed number of moves deep and picks
+ * the move leading to the best position it can force, as scored by an evaluation. The search is
+ * a negamax with alpha-beta pruning, which skips any move that cannot change the result, and it
+ * plays its moves on a private copy of the game taking each back with undoMove, so it works
+ * directly on hexagonal and square boards without cloning the model at every position.
+ */
+public class AlphaBeta implements ReversiStratagy {
+  /**
+   * The score of a won game before its disc difference is added, larger than any evaluation.
+   */
+  public static final int WIN_SCORE = 1000000;
+
+  private final int depth;
+  private final Evaluator evaluator;
+  private final TranspositionTable table;
+
+  /**
+   * Creates an alpha-beta strategy.
+   *
+   * @param depth     The number of moves to look ahead, at least 1.
+   * @param evaluator The evaluation used to score the positions at the end of the search.
+   * @throws IllegalArgumentException If the depth is less than 1 or the evaluator is null.
+   */
+  public AlphaBeta(int depth, Evaluator evaluator) {
+    this(depth, evaluator, null);
+  }
+
+  /**
+   * Creates an alpha-beta strategy that remembers the positions it searches in a transposition
+   * table, kept from one move to the next. A strategy with a table searches one game at a time.
+   *
+   * @param depth     The number of moves to look ahead, at least 1.
+   * @param evaluator The evaluation used to score the positions at the end of the search.
+   * @param table     The transposition table to use, or null to search without one.
+   * @throws IllegalArgumentException If the depth is less than 1 or the evaluator is null.
+   */
+  public AlphaBeta(int depth, Evaluator evaluator, TranspositionTable table) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Depth must be at least 1");
+    }
+    if (evaluator == null) {
+      throw new IllegalArgumentException("Evaluator can't be null");
+    }
+    this.depth = depth;
+    this.evaluator = evaluator;
+    this.table = table;
+  }
+
+  /**
+   * Creates an alpha-beta strategy that scores positions by their disc count.
+   *
+   * @param depth The number of moves to look ahead, at least 1.
+   * @throws IllegalArgumentException If the depth is less than 1.
+   */
+  public AlphaBeta(int depth) {
+    this(depth, new DiscCountEvaluator());
+  }
+
+  /**
+   * Chooses the best move found by the search for the player whose turn it is in the model.
+   *
+   * @param model The Reversi game model representing the current state of the game.
+   * @param turn  The disc color of the current player.
+   * @return The chosen move, or the pass coordinate if the player has no move.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn) {
+    return search(model).getMove();
+  }
+
+  /**
+   * Searches the model's position and reports the move chosen along with its score and the
+   * size of the search. The model itself is never changed.
+   *
+   * @param model The game to search.
+   * @return The result of the search.
+   */
+  public SearchResult search(ReversiReadOnly model) {
+    if (table != null) {
+      table.newSearch();
+    }
+    return new NegamaxSearch(SearchBoards.copyOf(model), evaluator, table).searchRoot(depth);
+  }
+
+  /**
+   * Retrieves the number of moves this strategy looks ahead.
+   *
+   * @return The search depth.
+   */
+  public int getDepth() {
+    return depth;
+  }
+}
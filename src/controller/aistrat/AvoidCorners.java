@@ -26,16 +26,29 @@ public class AvoidCorners implements ReversiStratagy {
    */
   @Override
   public Position chooseMove(ReversiReadOnly model, Disc turn) {
+    return chooseMove(model, turn, new MoveContext(model));
+  }
+
+  /**
+   * Chooses a move as {@link #chooseMove(ReversiReadOnly, Disc)} does, from the moves of the
+   * context.
+   *
+   * @param model   The Reversi game model representing the current state of the game.
+   * @param turn    The object representing the current player's turn.
+   * @param context The moves of the current player in this position.
+   * @return The selected for the next move, avoiding corners.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn, MoveContext context) {
     CaptureMost cm = new CaptureMost();
     int size = model.getSize();
-    ArrayList<Position> possibleMoves = model.getPossibleMoves();
-    ArrayList<Position> returnCopy = model.getPossibleMoves();
-    for (Position c : possibleMoves) {
-      if (this.isSpotToAvoid(c, size)) {
-        returnCopy.remove(c);
+    ArrayList<Position> possibleMoves = new ArrayList<Position>();
+    for (Position c : context.getMoves()) {
+      if (!this.isSpotToAvoid(c, size)) {
+        possibleMoves.add(c);
       }
     }
-    return cm.chooseMoveHelper(model, turn, returnCopy);
+    return cm.chooseMoveHelper(context, possibleMoves);
   }
 
   /**
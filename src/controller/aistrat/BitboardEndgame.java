@@ -0,0 +1,369 @@
+package controller.aistrat;
+
+import model.BoardSnapshot;
+import model.Disc;
+import model.Geometry;
+import model.Turn;
+
+/**
+ * The endgame search for square boards of up to eight by eight, where every square fits in one
+ * bit of a long. Each position is just two longs, the discs of the player to move and of their
+ * opponent, so moves are found, played and taken back with a handful of shifts and masks and the
+ * search never touches a board object. Square i of the bit masks is cell i of the geometry,
+ * which numbers the squares row by row.
+ *
+ * <p>Every move after the first at a position is tried with a null window, only proving that it
+ * is no better than the best so far, and searched again in full only when it turns out better.
+ * Positions with many empty squares have their bounds and best move kept in a table of their
+ * own, as the same positions come up again and again through different move orders.
+ */
+final class BitboardEndgame implements EndgameSearch {
+  // changes in the column and row for the eight directions
+  private static final int[] DX = {-1, 1, 0, 0, 1, -1, 1, -1};
+  private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+  // positions with at least this many empty squares are kept in the table
+  private static final int TABLE_EMPTIES = 7;
+  private static final int TABLE_BITS = 18;
+  // positions with at most this many empty squares are searched square by square
+  private static final int SHALLOW_EMPTIES = 4;
+
+  private final Geometry geometry;
+  private final int size;
+  private final long full;
+  private final long corners;
+  private final int[] shifts = new int[DX.length];
+  private final long[] landing = new long[DX.length];
+  private final long[] regions;
+  private final int[][] moveLists;
+  private final int[][] keyLists;
+  private final long[] tableOwn = new long[1 << TABLE_BITS];
+  private final long[] tableOpp = new long[1 << TABLE_BITS];
+  private final int[] tableLower = new int[1 << TABLE_BITS];
+  private final int[] tableUpper = new int[1 << TABLE_BITS];
+  private final byte[] tableMove = new byte[1 << TABLE_BITS];
+  private final long startOwn;
+  private final long startOpp;
+  private long nodes;
+
+  /**
+   * Prepares the masks for a square board and loads the position to solve.
+   *
+   * @param snapshot The position to solve, on a square board of size 8 or less.
+   */
+  BitboardEndgame(BoardSnapshot snapshot) {
+    Geometry geometry = snapshot.getGeometry();
+    this.geometry = geometry;
+    this.size = geometry.getSize();
+    int cells = size * size;
+    this.full = cells == 64 ? -1L : (1L << cells) - 1;
+    long corners = 0;
+    for (int index = 0; index < cells; index++) {
+      if (geometry.isCorner(index)) {
+        corners |= 1L << index;
+      }
+    }
+    this.corners = corners;
+    for (int dir = 0; dir < DX.length; dir++) {
+      shifts[dir] = DY[dir] * size + DX[dir];
+      long mask = 0;
+      for (int row = 0; row < size; row++) {
+        for (int col = 0; col < size; col++) {
+          int fromCol = col - DX[dir];
+          int fromRow = row - DY[dir];
+          if (fromCol >= 0 && fromCol < size && fromRow >= 0 && fromRow < size) {
+            mask |= 1L << (row * size + col);
+          }
+        }
+      }
+      landing[dir] = mask;
+    }
+    int[] region = EndgameSolver.regions(geometry);
+    this.regions = new long[EndgameSolver.REGION_COUNT];
+    for (int index = 0; index < cells; index++) {
+      regions[region[index]] |= 1L << index;
+    }
+    // a pass and a move at most for every empty square, plus the final pass
+    this.moveLists = new int[2 * cells + 2][cells];
+    this.keyLists = new int[2 * cells + 2][cells];
+
+    long black = 0;
+    long white = 0;
+    for (int index = 0; index < cells; index++) {
+      Disc disc = snapshot.getDisc(index);
+      if (disc == Disc.BLACK) {
+        black |= 1L << index;
+      } else if (disc == Disc.WHITE) {
+        white |= 1L << index;
+      }
+    }
+    this.startOwn = snapshot.getTurn() == Turn.BLACK ? black : white;
+    this.startOpp = snapshot.getTurn() == Turn.BLACK ? white : black;
+  }
+
+  @Override
+  public SearchResult solve(int alpha, int beta) {
+    long own = startOwn;
+    long opp = startOpp;
+    int empties = Long.bitCount(full & ~(own | opp));
+    if (moves(own, opp) == 0) {
+      int score = -search(opp, own, -beta, -alpha, true, 1);
+      return new SearchResult(null, score, empties, nodes);
+    }
+    nodes++;
+    int count = order(own, opp, 0);
+    int[] list = moveLists[0];
+    int best = -EndgameSolver.INFINITY;
+    int bestSquare = list[0];
+    for (int i = 0; i < count; i++) {
+      int square = list[i];
+      long flipped = flips(square, own, opp) | (1L << square);
+      int score = -search(opp & ~flipped, own | flipped, -beta, -Math.max(alpha, best), false, 1);
+      if (score > best) {
+        best = score;
+        bestSquare = square;
+        if (best >= beta) {
+          break;
+        }
+      }
+    }
+    return new SearchResult(geometry.getPosition(bestSquare), best, empties, nodes);
+  }
+
+  private int search(long own, long opp, int alpha, int beta, boolean passed, int ply) {
+    long empty = full & ~(own | opp);
+    if (Long.bitCount(empty) <= SHALLOW_EMPTIES) {
+      return searchShallow(own, opp, empty, alpha, beta, passed);
+    }
+    nodes++;
+    long moves = moves(own, opp);
+    if (moves == 0) {
+      if (passed) {
+        return Long.bitCount(own) - Long.bitCount(opp);
+      }
+      return -search(opp, own, -beta, -alpha, true, ply + 1);
+    }
+    int slot = -1;
+    int hashMove = -1;
+    if (Long.bitCount(full & ~(own | opp)) >= TABLE_EMPTIES) {
+      slot = slot(own, opp);
+      if (tableOwn[slot] == own && tableOpp[slot] == opp) {
+        int lower = tableLower[slot];
+        int upper = tableUpper[slot];
+        if (lower >= beta || lower == upper) {
+          return lower;
+        }
+        if (upper <= alpha) {
+          return upper;
+        }
+        alpha = Math.max(alpha, lower);
+        beta = Math.min(beta, upper);
+        hashMove = tableMove[slot];
+      }
+    }
+    int count = order(own, opp, ply);
+    int[] list = moveLists[ply];
+    promote(list, count, hashMove);
+    int window = alpha;
+    int best = -EndgameSolver.INFINITY;
+    int bestSquare = list[0];
+    for (int i = 0; i < count; i++) {
+      int square = list[i];
+      long flipped = flips(square, own, opp) | (1L << square);
+      long nextOwn = opp & ~flipped;
+      long nextOpp = own | flipped;
+      int score;
+      if (i == 0) {
+        score = -search(nextOwn, nextOpp, -beta, -alpha, false, ply + 1);
+      } else {
+        score = -search(nextOwn, nextOpp, -alpha - 1, -alpha, false, ply + 1);
+        if (score > alpha && score < beta) {
+          score = -search(nextOwn, nextOpp, -beta, -score, false, ply + 1);
+        }
+      }
+      if (score > best) {
+        best = score;
+        bestSquare = square;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    if (slot >= 0) {
+      store(slot, own, opp, window, beta, best, bestSquare);
+    }
+    return best;
+  }
+
+  /**
+   * Searches the last few empty squares. With so few left it is cheaper to try capturing from
+   * each empty square in turn, those in odd regions first, than to find the legal moves first.
+   */
+  private int searchShallow(long own, long opp, long empty, int alpha, int beta,
+                            boolean passed) {
+    nodes++;
+    int best = -EndgameSolver.INFINITY;
+    for (int pass = 1; pass >= 0 && best < beta; pass--) {
+      for (int region = 0; region < regions.length && best < beta; region++) {
+        long cells = empty & regions[region];
+        if ((Long.bitCount(cells) & 1) != pass) {
+          continue;
+        }
+        for (; cells != 0; cells &= cells - 1) {
+          int square = Long.numberOfTrailingZeros(cells);
+          long flipped = flips(square, own, opp);
+          if (flipped == 0) {
+            continue;
+          }
+          flipped |= 1L << square;
+          int score = -searchShallow(opp & ~flipped, own | flipped, empty & ~(1L << square),
+                  -beta, -Math.max(alpha, best), false);
+          if (score > best) {
+            best = score;
+            if (best >= beta) {
+              break;
+            }
+          }
+        }
+      }
+    }
+    if (best > -EndgameSolver.INFINITY) {
+      return best;
+    }
+    if (passed) {
+      return Long.bitCount(own) - Long.bitCount(opp);
+    }
+    return -searchShallow(opp, own, empty, -beta, -alpha, true);
+  }
+
+  private int slot(long own, long opp) {
+    long mixed = own * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(opp * 0xC2B2AE3D27D4EB4FL, 31);
+    return (int) (mixed >>> (64 - TABLE_BITS));
+  }
+
+  /**
+   * Records what a search of a position proved, merging it with what the table already knew
+   * of the same position.
+   */
+  private void store(int slot, long own, long opp, int alpha, int beta, int best, int square) {
+    if (tableOwn[slot] != own || tableOpp[slot] != opp) {
+      tableOwn[slot] = own;
+      tableOpp[slot] = opp;
+      tableLower[slot] = -EndgameSolver.INFINITY;
+      tableUpper[slot] = EndgameSolver.INFINITY;
+    }
+    if (best > alpha) {
+      tableLower[slot] = Math.max(tableLower[slot], best);
+      tableMove[slot] = (byte) square;
+    }
+    if (best < beta) {
+      tableUpper[slot] = Math.min(tableUpper[slot], best);
+    }
+  }
+
+  private static void promote(int[] list, int count, int move) {
+    for (int i = 1; i < count; i++) {
+      if (list[i] == move) {
+        System.arraycopy(list, 0, list, 1, i);
+        list[0] = move;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Lists the moves of a position in the order they should be searched. With many squares left, the
+   * moves leaving the opponent the fewest replies go first, as they most often refute the position
+   * quickly; replies on corners count double, and ties go to the move leaving the player's discs
+   * the fewest empty squares next to them. Near the very end that costs more than it saves, and
+   * moves into regions with an odd number of empty squares go first instead, so the player tends to
+   * get the last move in each region.
+   *
+   * @return The number of moves listed.
+   */
+  private int order(long own, long opp, int ply) {
+    long moves = moves(own, opp);
+    long empty = full & ~(own | opp);
+    int[] list = moveLists[ply];
+    int count = 0;
+    if (Long.bitCount(empty) <= EndgameSolver.PARITY_EMPTIES) {
+      for (int pass = 1; pass >= 0; pass--) {
+        for (long region : regions) {
+          if ((Long.bitCount(empty & region) & 1) != pass) {
+            continue;
+          }
+          for (long bits = moves & region; bits != 0; bits &= bits - 1) {
+            list[count++] = Long.numberOfTrailingZeros(bits);
+          }
+        }
+      }
+      return count;
+    }
+    int[] keys = keyLists[ply];
+    for (long bits = moves; bits != 0; bits &= bits - 1) {
+      int square = Long.numberOfTrailingZeros(bits);
+      long flipped = flips(square, own, opp) | (1L << square);
+      long replies = moves(opp & ~flipped, own | flipped);
+      int key = (Long.bitCount(replies) + Long.bitCount(replies & corners)) * 8
+              + Long.bitCount(around(empty & ~(1L << square)) & (own | flipped));
+      if ((corners & (1L << square)) != 0) {
+        key -= 4;
+      }
+      int at = count++;
+      while (at > 0 && keys[at - 1] > key) {
+        keys[at] = keys[at - 1];
+        list[at] = list[at - 1];
+        at--;
+      }
+      keys[at] = key;
+      list[at] = square;
+    }
+    return count;
+  }
+
+  private long shift(long bits, int dir) {
+    int amount = shifts[dir];
+    return (amount > 0 ? bits << amount : bits >>> -amount) & landing[dir];
+  }
+
+  private long around(long bits) {
+    long result = 0;
+    for (int dir = 0; dir < DX.length; dir++) {
+      result |= shift(bits, dir);
+    }
+    return result;
+  }
+
+  private long moves(long own, long opp) {
+    long empty = full & ~(own | opp);
+    long moves = 0;
+    for (int dir = 0; dir < DX.length; dir++) {
+      long run = shift(own, dir) & opp;
+      for (int step = 3; step < size; step++) {
+        run |= shift(run, dir) & opp;
+      }
+      moves |= shift(run, dir) & empty;
+    }
+    return moves;
+  }
+
+  private long flips(int square, long own, long opp) {
+    long flipped = 0;
+    long start = 1L << square;
+    for (int dir = 0; dir < DX.length; dir++) {
+      long run = 0;
+      long next = shift(start, dir);
+      while ((next & opp) != 0) {
+        run |= next;
+        next = shift(next, dir);
+      }
+      if ((next & own) != 0) {
+        flipped |= run;
+      }
+    }
+    return flipped;
+  }
+}
@@ -0,0 +1,219 @@
+package controller.aistrat;
+
+import model.Disc;
+import model.Geometry;
+import model.Reversi;
+
+/**
+ * The endgame search for hexagonal boards and square boards too large for a single long. It
+ * plays on a private board with makeMove and undoMove, listing moves into one reusable array per
+ * ply, and keeps a count of the empty cells in each region of the board as it goes so that the
+ * parity of every region is known without scanning the board. Positions with many empty cells
+ * are remembered in a transposition table keyed by the board's position hash, and every move
+ * after the first is tried with a null window before being searched in full.
+ */
+final class BoardEndgame implements EndgameSearch {
+  // positions with at least this many empty cells are kept in the table
+  private static final int TABLE_EMPTIES = 7;
+
+  private final Reversi board;
+  private final Geometry geometry;
+  private final int[] region;
+  private final int[] regionEmpties = new int[EndgameSolver.REGION_COUNT];
+  private final int[][] moveLists;
+  private final int[][] keyLists;
+  private final int[] replies;
+  private final TranspositionTable table = new TranspositionTable(8);
+  private int empties;
+  private long nodes;
+
+  /**
+   * Prepares a search of the given board.
+   *
+   * @param board The private board to search on, which is played on and restored.
+   */
+  BoardEndgame(Reversi board) {
+    this.board = board;
+    this.geometry = board.getGeometry();
+    this.region = EndgameSolver.regions(geometry);
+    int cells = geometry.getCellCount();
+    for (int index = 0; index < cells; index++) {
+      if (board.getDiscAt(geometry.getFirstCoordinate(index),
+              geometry.getSecondCoordinate(index)) == Disc.EMPTY) {
+        regionEmpties[region[index]]++;
+        empties++;
+      }
+    }
+    this.moveLists = new int[2 * empties + 2][cells];
+    this.keyLists = new int[2 * empties + 2][cells];
+    this.replies = new int[cells];
+  }
+
+  @Override
+  public SearchResult solve(int alpha, int beta) {
+    int total = empties;
+    int count = order(0);
+    if (count == 0) {
+      board.passTurn();
+      int score = -search(-beta, -alpha, true, 1);
+      board.undoMove();
+      return new SearchResult(null, score, total, nodes);
+    }
+    nodes++;
+    int[] list = moveLists[0];
+    int best = -EndgameSolver.INFINITY;
+    int bestCell = list[0];
+    for (int i = 0; i < count; i++) {
+      play(list[i]);
+      int score = -search(-beta, -Math.max(alpha, best), false, 1);
+      undo(list[i]);
+      if (score > best) {
+        best = score;
+        bestCell = list[i];
+        if (best >= beta) {
+          break;
+        }
+      }
+    }
+    return new SearchResult(geometry.getPosition(bestCell), best, total, nodes);
+  }
+
+  private int search(int alpha, int beta, boolean passed, int ply) {
+    nodes++;
+    int count = order(ply);
+    if (count == 0) {
+      if (passed) {
+        Disc player = board.currentColor();
+        Disc opponent = player == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+        return board.getScore(player) - board.getScore(opponent);
+      }
+      board.passTurn();
+      int score = -search(-beta, -alpha, true, ply + 1);
+      board.undoMove();
+      return score;
+    }
+    boolean remembered = empties >= TABLE_EMPTIES;
+    long hash = board.getPositionHash();
+    if (remembered) {
+      long entry = table.probe(hash);
+      if (entry != 0) {
+        int score = TranspositionTable.getScore(entry);
+        int bound = TranspositionTable.getBound(entry);
+        if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER && score >= beta)
+                || (bound == TranspositionTable.UPPER && score <= alpha)) {
+          return score;
+        }
+        promote(moveLists[ply], count, TranspositionTable.getMove(entry));
+      }
+    }
+    int[] list = moveLists[ply];
+    int window = alpha;
+    int best = -EndgameSolver.INFINITY;
+    int bestCell = list[0];
+    for (int i = 0; i < count; i++) {
+      play(list[i]);
+      int score;
+      if (i == 0) {
+        score = -search(-beta, -alpha, false, ply + 1);
+      } else {
+        score = -search(-alpha - 1, -alpha, false, ply + 1);
+        if (score > alpha && score < beta) {
+          score = -search(-beta, -score, false, ply + 1);
+        }
+      }
+      undo(list[i]);
+      if (score > best) {
+        best = score;
+        bestCell = list[i];
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    if (remembered) {
+      int bound = TranspositionTable.EXACT;
+      if (best <= window) {
+        bound = TranspositionTable.UPPER;
+      } else if (best >= beta) {
+        bound = TranspositionTable.LOWER;
+      }
+      table.store(hash, empties, bound, best, bestCell);
+    }
+    return best;
+  }
+
+  private static void promote(int[] list, int count, int move) {
+    for (int i = 1; i < count; i++) {
+      if (list[i] == move) {
+        System.arraycopy(list, 0, list, 1, i);
+        list[0] = move;
+        return;
+      }
+    }
+  }
+
+  private void play(int cell) {
+    board.makeMove(geometry.getPosition(cell));
+    regionEmpties[region[cell]]--;
+    empties--;
+  }
+
+  private void undo(int cell) {
+    board.undoMove();
+    regionEmpties[region[cell]]++;
+    empties++;
+  }
+
+  /**
+   * Lists the moves of the player to move in the order they should be searched: fewest replies
+   * for the opponent first while many cells are left, and odd regions first near the end.
+   *
+   * @return The number of moves listed.
+   */
+  private int order(int ply) {
+    int[] list = moveLists[ply];
+    int count = board.listMoves(board.currentColor(), list);
+    if (count < 2) {
+      return count;
+    }
+    if (empties <= EndgameSolver.PARITY_EMPTIES) {
+      int odd = 0;
+      int[] keys = keyLists[ply];
+      System.arraycopy(list, 0, keys, 0, count);
+      for (int i = 0; i < count; i++) {
+        if ((regionEmpties[region[keys[i]]] & 1) == 1) {
+          list[odd++] = keys[i];
+        }
+      }
+      for (int i = 0; i < count; i++) {
+        if ((regionEmpties[region[keys[i]]] & 1) == 0) {
+          list[odd++] = keys[i];
+        }
+      }
+      return count;
+    }
+    int[] keys = keyLists[ply];
+    for (int i = 0; i < count; i++) {
+      int cell = list[i];
+      board.makeMove(geometry.getPosition(cell));
+      int key = board.listMoves(board.currentColor(), replies) * 2;
+      board.undoMove();
+      if (geometry.isCorner(cell)) {
+        key--;
+      }
+      int at = i;
+      while (at > 0 && keys[at - 1] > key) {
+        keys[at] = keys[at - 1];
+        list[at] = list[at - 1];
+        at--;
+      }
+      keys[at] = key;
+      list[at] = cell;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,177 @@
+package controller.aistrat;
+
+import java.util.HashMap;
+
+import model.Disc;
+import model.Geometry;
+import model.Position;
+import model.ReversiReadOnly;
+
+/**
+ * A strategy that remembers the moves another strategy chose and plays them again, without
+ * asking it, whenever the same position comes up with the same player to move. Positions are
+ * known by their Zobrist hash, so a lookup costs the same however long the strategy takes to
+ * choose; it suits strategies that always choose the same move in the same position, which is
+ * every strategy here but the time-budgeted and random ones.
+ *
+ * <p>The cache holds a fixed number of moves. Once it is full, room for a new one is made by the
+ * CLOCK scheme: the slots are swept in a circle, each slot used since the sweep last passed it is
+ * given another round, and the first one that wasn't is replaced. This keeps the moves of
+ * positions that keep coming up, much like least-recently-used replacement, for a single bit of
+ * bookkeeping per slot. Hits, misses and evictions are counted for monitoring.
+ *
+ * <p>A caching strategy may be shared between threads. The wrapped strategy is asked outside of
+ * the cache's lock, so threads choosing moves at once only wait for each other to look up and
+ * store moves.
+ */
+public class CachingStrategy implements ReversiStratagy {
+  private final ReversiStratagy strategy;
+  private final int capacity;
+  // where each cached position is, by its hash
+  private final HashMap<Long, Integer> slots = new HashMap<Long, Integer>();
+  private final long[] hashes;
+  private final Disc[] turns;
+  private final Geometry[] geometries;
+  private final Position[] moves;
+  private final boolean[] used;
+  private int size;
+  private int hand;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Creates a cache in front of a strategy.
+   *
+   * @param strategy The strategy choosing the moves that aren't cached.
+   * @param capacity The most moves to remember, at least 1.
+   * @throws IllegalArgumentException If the strategy is null or the capacity is less than 1.
+   */
+  public CachingStrategy(ReversiStratagy strategy, int capacity) {
+    if (strategy == null) {
+      throw new IllegalArgumentException("Strategy can't be null");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1");
+    }
+    this.strategy = strategy;
+    this.capacity = capacity;
+    this.hashes = new long[capacity];
+    this.turns = new Disc[capacity];
+    this.geometries = new Geometry[capacity];
+    this.moves = new Position[capacity];
+    this.used = new boolean[capacity];
+  }
+
+  /**
+   * Plays the remembered move of the position if there is one, and otherwise asks the wrapped
+   * strategy and remembers its move.
+   *
+   * @param model The Reversi game model representing the current state of the game.
+   * @param turn  The disc color of the current player.
+   * @return The chosen move.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn) {
+    return chooseMove(model, turn, new MoveContext(model));
+  }
+
+  /**
+   * Plays the remembered move of the position if there is one, and otherwise asks the wrapped
+   * strategy, handing it the context, and remembers its move.
+   *
+   * @param model   The Reversi game model representing the current state of the game.
+   * @param turn    The disc color of the current player.
+   * @param context The moves of the current player in this position.
+   * @return The chosen move.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn, MoveContext context) {
+    long hash = model.getPositionHash();
+    Geometry geometry = model.getGeometry();
+    synchronized (this) {
+      Integer slot = slots.get(hash);
+      if (slot != null && turns[slot] == turn && geometries[slot] == geometry) {
+        used[slot] = true;
+        hits++;
+        return moves[slot];
+      }
+      misses++;
+    }
+    Position move = strategy.chooseMove(model, turn, context);
+    if (move != null) {
+      store(hash, turn, geometry, move);
+    }
+    return move;
+  }
+
+  private synchronized void store(long hash, Disc turn, Geometry geometry, Position move) {
+    Integer slot = slots.get(hash);
+    if (slot == null) {
+      if (size < capacity) {
+        slot = size++;
+      } else {
+        while (used[hand]) {
+          used[hand] = false;
+          hand = (hand + 1) % capacity;
+        }
+        slot = hand;
+        hand = (hand + 1) % capacity;
+        slots.remove(hashes[slot]);
+        evictions++;
+      }
+      slots.put(hash, slot);
+    }
+    hashes[slot] = hash;
+    turns[slot] = turn;
+    geometries[slot] = geometry;
+    moves[slot] = move;
+    used[slot] = false;
+  }
+
+  /**
+   * Retrieves the number of moves played from the cache.
+   *
+   * @return The number of hits.
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Retrieves the number of moves the wrapped strategy was asked for because they weren't
+   * cached.
+   *
+   * @return The number of misses.
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Retrieves the number of cached moves that were replaced to make room for others.
+   *
+   * @return The number of evictions.
+   */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Retrieves the number of moves cached.
+   *
+   * @return The number of moves, at most the capacity.
+   */
+  public synchronized int getSize() {
+    return size;
+  }
+
+  /**
+   * Retrieves the most moves the cache holds.
+   *
+   * @return The capacity.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+}
@@ -1,12 +1,10 @@
 package controller.aistrat;
 
-import java.util.ArrayList;
+import java.util.List;
 
-import model.Coordinate;
 import model.Disc;
 import model.Position;
 import model.ReversiReadOnly;
-import model.Turn;
 
 /**
  * The CaptureCorners strategy for playing Reversi.
@@ -26,13 +24,21 @@ public class CaptureCorners implements ReversiStratagy {
    */
   @Override
   public Position chooseMove(ReversiReadOnly model, Disc turn) {
-    Turn t = null;
-    if (turn == Disc.BLACK) {
-      t = Turn.BLACK;
-    } else {
-      t = Turn.WHITE;
-    }
-    ArrayList<Position> moves = model.getPossibleMoves();
+    return chooseMove(model, turn, new MoveContext(model));
+  }
+
+  /**
+   * Chooses a move as {@link #chooseMove(ReversiReadOnly, Disc)} does, from the moves of the
+   * context.
+   *
+   * @param model   The Reversi game model representing the current state of the game.
+   * @param turn    The object representing the current player's turn.
+   * @param context The moves of the current player in this position.
+   * @return The selected for the next move, prioritizing corners.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn, MoveContext context) {
+    List<Position> moves = context.getMoves();
     for (Position move : moves) {
       System.out.println(move.getFirstCoordinate() + " " + move.getSecondCoordinate());
     }
@@ -42,7 +48,7 @@ public class CaptureCorners implements ReversiStratagy {
         return move;
       }
     }
-    return new Coordinate(model.getSize(), model.getSize());
+    return context.getPass();
   }
 
   /**
@@ -1,12 +1,10 @@
 package controller.aistrat;
 
 import model.Disc;
-import model.Coordinate;
 import model.Position;
 import model.ReversiReadOnly;
-import model.Turn;
 
-import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -27,31 +25,35 @@ public class CaptureMost implements ReversiStratagy {
    */
   @Override
   public Position chooseMove(ReversiReadOnly model, Disc turn) {
-    ArrayList<Position> moves = model.getPossibleMoves();
-    return chooseMoveHelper(model, turn, moves);
+    return chooseMove(model, turn, new MoveContext(model));
+  }
+
+  /**
+   * Chooses the move that captures the most discs, using the moves and capture counts of the
+   * context.
+   *
+   * @param model   The Reversi game model representing the current state of the game.
+   * @param turn    The  object representing the current player's turn.
+   * @param context The moves of the current player in this position.
+   * @return The Position for the move that captures the most discs.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn, MoveContext context) {
+    return chooseMoveHelper(context, context.getMoves());
   }
 
   /**
    * Helper method to choose the move that results in the highest score.
    *
-   * @param model         The current state of the Reversi game.
-   * @param turn          The current player's disc color.
+   * @param context       The moves of the current player, with their capture counts.
    * @param possibleMoves A list of possible moves to consider.
    * @return The of the move that results in the highest score.
    */
-  protected Position chooseMoveHelper(ReversiReadOnly model, Disc turn,
-                                      ArrayList<Position> possibleMoves) {
-
+  protected Position chooseMoveHelper(MoveContext context, List<Position> possibleMoves) {
     int max = 0;
     Position maxMove = null;
-    Turn t = null;
-    if (turn == Disc.BLACK) {
-      t = Turn.BLACK;
-    } else {
-      t = Turn.WHITE;
-    }
     for (Position move : possibleMoves) {
-      int score = model.checkMove(model, move);
+      int score = context.getFlipCount(move);
       if (score > max) {
         max = score;
         maxMove = move;
@@ -60,7 +62,7 @@ public class CaptureMost implements ReversiStratagy {
     if (maxMove != null) {
       return maxMove;
     } else {
-      return new Coordinate(model.getSize(), model.getSize());
+      return context.getPass();
     }
   }
 }
@@ -0,0 +1,18 @@
+package controller.aistrat;
+
+import model.Disc;
+import model.ReversiReadOnly;
+
+/**
+ * The simplest evaluation: the number of discs the player has on the board minus the number the
+ * opponent has. Cheap enough to be used at every leaf of a deep search, as the models keep their
+ * disc counts up to date as they play.
+ */
+public class DiscCountEvaluator implements Evaluator {
+
+  @Override
+  public int evaluate(ReversiReadOnly model, Disc player) {
+    Disc opponent = player == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+    return model.getScore(player) - model.getScore(opponent);
+  }
+}
@@ -0,0 +1,20 @@
+package controller.aistrat;
+
+/**
+ * A search of one position to the end of the game, as run by the {@link EndgameSolver}. A search
+ * may be run several times with different windows, and keeps what it learned about the
+ * positions it visited from one run to the next.
+ */
+interface EndgameSearch {
+
+  /**
+   * Searches the position to the end of the game.
+   *
+   * @param alpha The lowest disc difference of interest.
+   * @param beta  The highest disc difference of interest.
+   * @return The best move, or null if the player must pass, and the final disc difference it
+   *         leads to for the player to move, exact if it falls inside the window and a bound on
+   *         the same side otherwise. The node count is the total over every run so far.
+   */
+  SearchResult solve(int alpha, int beta);
+}
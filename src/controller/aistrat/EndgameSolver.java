@@ -0,0 +1,193 @@
+package controller.aistrat;
+
+import model.BoardSnapshot;
+import model.Coordinate;
+import model.Disc;
+import model.Geometry;
+import model.Position;
+import model.ReversiReadOnly;
+
+/**
+ * A strategy that plays perfectly once the board is nearly full. When no more than a set number
+ * of cells are left empty it searches every line of play to the end of the game and picks the
+ * move with the best final disc difference it can force; before that it leaves the move to
+ * another strategy. It can also be asked only whether a position is won, lost or drawn, which
+ * is found much faster as the search can stop at the first move that wins.
+ *
+ * <p>Square boards of up to eight by eight are searched on bit masks held in two longs; other
+ * boards are searched on a private copy of the game with makeMove and undoMove. Moves are tried
+ * fastest first, those leaving the opponent the fewest replies ahead of the rest, and in the
+ * last few empty cells by parity, those in regions of the board with an odd number of empty
+ * cells first. The exact score is found by a series of null window searches closing in on it
+ * from both sides, each far cheaper than a search with an open window, with the positions they
+ * visit remembered from one to the next.
+ */
+public class EndgameSolver implements ReversiStratagy {
+  /**
+   * A bound above every disc difference.
+   */
+  static final int INFINITY = 1 << 20;
+  /**
+   * The number of regions the board is split into for parity: quadrants of a square board or
+   * the six sectors around the center of a hexagonal one.
+   */
+  static final int REGION_COUNT = 6;
+  /**
+   * The number of empty cells at and below which moves are ordered by parity alone.
+   */
+  static final int PARITY_EMPTIES = 4;
+
+  private final int threshold;
+  private final boolean winLossDraw;
+  private final ReversiStratagy fallback;
+  private volatile long lastNodes;
+
+  /**
+   * Creates an endgame solver.
+   *
+   * @param threshold   The number of empty cells at and below which the game is solved.
+   * @param winLossDraw Whether to solve only for a win, loss or draw rather than for the exact
+   *                    disc difference.
+   * @param fallback    The strategy choosing moves while more cells are empty.
+   * @throws IllegalArgumentException If the threshold is negative or the fallback is null.
+   */
+  public EndgameSolver(int threshold, boolean winLossDraw, ReversiStratagy fallback) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Threshold can't be negative");
+    }
+    if (fallback == null) {
+      throw new IllegalArgumentException("Fallback strategy can't be null");
+    }
+    this.threshold = threshold;
+    this.winLossDraw = winLossDraw;
+    this.fallback = fallback;
+  }
+
+  /**
+   * Creates an endgame solver that solves for the exact disc difference once 16 cells or fewer
+   * are empty.
+   *
+   * @param fallback The strategy choosing moves while more cells are empty.
+   * @throws IllegalArgumentException If the fallback is null.
+   */
+  public EndgameSolver(ReversiStratagy fallback) {
+    this(16, false, fallback);
+  }
+
+  /**
+   * Solves the game if few enough cells are empty, and otherwise asks the fallback strategy.
+   *
+   * @param model The Reversi game model representing the current state of the game.
+   * @param turn  The disc color of the current player.
+   * @return The chosen move, or the pass coordinate if the player has no move.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn) {
+    if (model.getScore(Disc.EMPTY) > threshold) {
+      return fallback.chooseMove(model, turn);
+    }
+    if (winLossDraw) {
+      return solveWinLossDraw(model).getMove();
+    }
+    return solve(model).getMove();
+  }
+
+  /**
+   * Searches the model's position to the end of the game. The score of the result is the
+   * final number of discs of the player to move minus those of the opponent under perfect play,
+   * and its depth is the number of empty cells. The model itself is never changed.
+   *
+   * @param model The game to solve.
+   * @return The best move and the disc difference it leads to.
+   */
+  public SearchResult solve(ReversiReadOnly model) {
+    EndgameSearch search = searchFor(model);
+    int cells = model.getGeometry().getCellCount();
+    // each null window search proves the score above or below a guess, narrowing the range it
+    // can lie in, and reuses everything the search remembered from the tries before it
+    int low = -cells - 1;
+    int high = cells;
+    SearchResult proven = null;
+    while (low < high) {
+      int guess = low + (high - low + 1) / 2;
+      SearchResult result = search.solve(guess - 1, guess);
+      if (result.getScore() >= guess) {
+        low = result.getScore();
+        proven = result;
+      } else {
+        high = result.getScore();
+      }
+    }
+    lastNodes = proven.getNodes();
+    return withMove(model, proven, low);
+  }
+
+  /**
+   * Finds whether the player to move wins, loses or draws under perfect play, and a move that
+   * achieves it. The score of the result is 1 for a win, 0 for a draw and -1 for a loss.
+   *
+   * @param model The game to solve.
+   * @return A move achieving the best outcome and that outcome.
+   */
+  public SearchResult solveWinLossDraw(ReversiReadOnly model) {
+    SearchResult result = searchFor(model).solve(-1, 1);
+    lastNodes = result.getNodes();
+    return withMove(model, result, Integer.signum(result.getScore()));
+  }
+
+  private EndgameSearch searchFor(ReversiReadOnly model) {
+    BoardSnapshot snapshot = model.snapshot();
+    Geometry geometry = snapshot.getGeometry();
+    if (!geometry.isHex() && geometry.getSize() <= 8) {
+      return new BitboardEndgame(snapshot);
+    }
+    return new BoardEndgame(SearchBoards.fromSnapshot(snapshot));
+  }
+
+  private static SearchResult withMove(ReversiReadOnly model, SearchResult result, int score) {
+    Position move = result.getMove();
+    if (move == null) {
+      move = new Coordinate(model.getSize(), model.getSize());
+    }
+    return new SearchResult(move, score, result.getDepth(), result.getNodes());
+  }
+
+  /**
+   * Retrieves the number of positions searched for the most recent solve.
+   *
+   * @return The number of nodes searched.
+   */
+  public long getLastNodes() {
+    return lastNodes;
+  }
+
+  /**
+   * Splits the cells of a board into the regions used for parity: the four quadrants of a square
+   * board, or the six sectors of a hexagonal board, each the cells whose largest coordinate in
+   * absolute value is the same one with the same sign.
+   *
+   * @param geometry The geometry of the board.
+   * @return The region of every cell, between 0 and {@link #REGION_COUNT}.
+   */
+  static int[] regions(Geometry geometry) {
+    int[] region = new int[geometry.getCellCount()];
+    int half = geometry.getSize() / 2;
+    for (int index = 0; index < region.length; index++) {
+      int first = geometry.getFirstCoordinate(index);
+      int second = geometry.getSecondCoordinate(index);
+      if (!geometry.isHex()) {
+        region[index] = (second >= half ? 2 : 0) + (first >= half ? 1 : 0);
+        continue;
+      }
+      int[] cube = {first, second, -first - second};
+      int axis = 0;
+      for (int i = 1; i < cube.length; i++) {
+        if (Math.abs(cube[i]) > Math.abs(cube[axis])) {
+          axis = i;
+        }
+      }
+      region[index] = axis * 2 + (cube[axis] < 0 ? 1 : 0);
+    }
+    return region;
+  }
+}
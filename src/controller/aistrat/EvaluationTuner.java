@@ -0,0 +1,333 @@
+package controller.aistrat;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.BitSquareBoard;
+import model.Disc;
+import model.FlatHexBoard;
+import model.Geometry;
+import model.Reversi;
+import model.ReversiReadOnly;
+
+/**
+ * Tunes the weights of a {@link PatternEvaluator} from games it plays against itself. Tuning
+ * runs in two steps, each spread over several threads:
+ * <ol>
+ *   <li>Self-play: the evaluator plays whole games against itself with a shallow alpha-beta
+ *   search, opening with a few random moves and playing a random move now and then so that the
+ *   games differ. Every position where a player had a move is written to a position file,
+ *   labeled with who won the game in the end.</li>
+ *   <li>Fitting: the position file is memory mapped and the weights are fitted to it by gradient
+ *   descent, each thread working out the gradient of its own slice of the positions. A score is
+ *   turned into the chance of black winning by a logistic curve, and the weights are moved to
+ *   make that chance match the results of the games (the "Texel" method).</li>
+ * </ol>
+ * The fitted weights go back into the evaluator and can be saved to the weights file of the
+ * geometry, which an evaluator reading from that directory loads when it meets the board. Each
+ * run plays with the weights of the last, so running the tuner again keeps improving them. The
+ * position files it writes are described by {@link PositionFile}.
+ */
+public class EvaluationTuner {
+  // moves at the start of each game that are played at random, so no two games are the same
+  private static final int RANDOM_OPENING = 4;
+  // the chance of any later move being played at random
+  private static final double RANDOM_RATE = 0.1;
+  // a score of this much is worth odds of e to 1 of winning
+  private static final double SCALE = 64;
+  // how far weights move each epoch, per unit of gradient averaged over the positions they score
+  private static final double LEARNING_RATE = 2 * SCALE * SCALE;
+  // added to the number of times a code was seen before dividing its gradient by it, so that
+  // codes seen in a handful of positions don't fit the results of those few games
+  private static final int DAMPING = 4000;
+
+  private final int threads;
+  private final int depth;
+
+  /**
+   * Creates a tuner.
+   *
+   * @param threads The number of threads to play and fit on, at least 1.
+   * @param depth   The depth of the search playing the self-play games, at least 1.
+   * @throws IllegalArgumentException If the threads or depth are less than 1.
+   */
+  public EvaluationTuner(int threads, int depth) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be at least 1");
+    }
+    if (depth < 1) {
+      throw new IllegalArgumentException("Depth must be at least 1");
+    }
+    this.threads = threads;
+    this.depth = depth;
+  }
+
+  /**
+   * Plays games of the evaluator against itself from a start position and writes the positions
+   * played through to a position file. The start position itself is never changed.
+   *
+   * @param evaluator The evaluator playing both sides.
+   * @param start     The position every game starts from, usually the start of a game.
+   * @param games     The number of games to play.
+   * @param seed      The seed of the random moves; the same seed plays the same openings.
+   * @param file      The position file to write, replaced if it exists.
+   * @return The number of positions written.
+   * @throws IOException If the file can't be written or the tuner is interrupted.
+   */
+  public int generate(PatternEvaluator evaluator, ReversiReadOnly start, int games, long seed,
+                      Path file) throws IOException {
+    Geometry geometry = start.getGeometry();
+    int recordBytes = geometry.getCellCount() + 1;
+    AtomicInteger nextGame = new AtomicInteger();
+    AtomicInteger written = new AtomicInteger();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      channel.position(PositionFile.HEADER_BYTES);
+      List<Callable<Void>> players = new ArrayList<Callable<Void>>();
+      for (int t = 0; t < threads; t++) {
+        players.add(() -> {
+          AlphaBeta search = new AlphaBeta(depth, evaluator, new TranspositionTable(1));
+          for (int game = nextGame.getAndIncrement(); game < games;
+               game = nextGame.getAndIncrement()) {
+            ByteBuffer records = playGame(search, start, new Random(seed + game));
+            // the games of different threads are written whole, one after another
+            synchronized (channel) {
+              written.addAndGet(records.remaining() / recordBytes);
+              while (records.hasRemaining()) {
+                channel.write(records);
+              }
+            }
+          }
+          return null;
+        });
+      }
+      runAll(players);
+      PositionFile.writeHeader(channel, geometry, written.get());
+    }
+    return written.get();
+  }
+
+  private ByteBuffer playGame(AlphaBeta search, ReversiReadOnly start, Random rand) {
+    Reversi board = SearchBoards.copyOf(start);
+    Geometry geometry = board.getGeometry();
+    int[] moves = new int[geometry.getCellCount()];
+    List<byte[]> positions = new ArrayList<byte[]>();
+    int played = 0;
+    while (!board.isGameOver()) {
+      int count = board.listMoves(board.currentColor(), moves);
+      if (count == 0) {
+        board.passTurn();
+        continue;
+      }
+      byte[] cells = new byte[geometry.getCellCount()];
+      for (int cell = 0; cell < cells.length; cell++) {
+        cells[cell] = (byte) PatternSet.digit(board.getDiscAt(geometry.getFirstCoordinate(cell),
+                geometry.getSecondCoordinate(cell)));
+      }
+      positions.add(cells);
+      if (played < RANDOM_OPENING || rand.nextDouble() < RANDOM_RATE) {
+        board.makeMove(geometry.getPosition(moves[rand.nextInt(count)]));
+      } else {
+        board.makeMove(search.search(board).getMove());
+      }
+      played++;
+    }
+    int margin = board.getScore(Disc.BLACK) - board.getScore(Disc.WHITE);
+    byte result = (byte) (margin > 0 ? 2 : margin == 0 ? 1 : 0);
+    ByteBuffer records = ByteBuffer.allocate(positions.size() * (geometry.getCellCount() + 1));
+    for (byte[] cells : positions) {
+      records.put(cells).put(result);
+    }
+    records.flip();
+    return records;
+  }
+
+  /**
+   * Fits the evaluator's weights for the geometry of a position file to the positions in it,
+   * starting from the weights it has. The fitted weights are set on the evaluator when done.
+   *
+   * @param evaluator The evaluator whose weights are tuned.
+   * @param file      A position file written by {@link #generate}.
+   * @param epochs    The number of steps of gradient descent to take.
+   * @return The mean squared error of the predicted results before each step and after the
+   *         last, so one more than the number of epochs.
+   * @throws IOException If the file can't be read or is not a position file, or the tuner is
+   *                     interrupted.
+   */
+  public double[] tune(PatternEvaluator evaluator, Path file, int epochs) throws IOException {
+    PositionFile positions = PositionFile.open(file, threads);
+    Geometry geometry = positions.getGeometry();
+    int count = positions.getCount();
+    PatternSet patterns = PatternSet.of(geometry);
+    int[][] swapped = new int[PatternSet.FAMILY_COUNT][];
+    double[][] weights = new double[PatternSet.FAMILY_COUNT][];
+    int[][] start = evaluator.getWeights(geometry);
+    for (int f = 0; f < weights.length; f++) {
+      swapped[f] = patterns.swappedCodes(f);
+      weights[f] = new double[start[f].length];
+      for (int code = 0; code < weights[f].length; code++) {
+        weights[f][code] = start[f][code];
+      }
+    }
+
+    double[] errors = new double[epochs + 1];
+    for (int epoch = 0; epoch <= epochs; epoch++) {
+      List<Callable<Gradient>> tasks = new ArrayList<Callable<Gradient>>();
+      for (MappedByteBuffer slice : positions.getSlices()) {
+        tasks.add(() -> gradient(positions, slice, patterns, weights));
+      }
+      Gradient total = new Gradient(patterns);
+      for (Gradient part : runAll(tasks)) {
+        total.add(part);
+      }
+      errors[epoch] = count == 0 ? 0 : total.error / count;
+      if (epoch == epochs) {
+        break;
+      }
+      // each code moves by the average of its own gradient and the negated gradient of its
+      // swapped code, keeping the weights of swapped codes the negation of each other
+      for (int f = 0; f < weights.length; f++) {
+        for (int code = 0; code < weights[f].length; code++) {
+          int other = swapped[f][code];
+          long seen = total.counts[f][code] + total.counts[f][other];
+          if (seen > 0) {
+            double gradient = total.sums[f][code] - total.sums[f][other];
+            weights[f][code] -= LEARNING_RATE * gradient / (seen + DAMPING);
+          }
+        }
+      }
+    }
+
+    int[][] tuned = new int[weights.length][];
+    for (int f = 0; f < weights.length; f++) {
+      tuned[f] = new int[weights[f].length];
+      for (int code = 0; code < tuned[f].length; code++) {
+        tuned[f][code] = (int) Math.round(weights[f][code]);
+      }
+    }
+    evaluator.setWeights(geometry, tuned);
+    return errors;
+  }
+
+  private static Gradient gradient(PositionFile positions, MappedByteBuffer slice,
+                                   PatternSet patterns, double[][] weights) {
+    Gradient gradient = new Gradient(patterns);
+    int cellCount = patterns.getGeometry().getCellCount();
+    int[] codes = new int[patterns.getPatternCount()];
+    int records = positions.countIn(slice);
+    for (int record = 0; record < records; record++) {
+      Arrays.fill(codes, 0);
+      for (int cell = 0; cell < cellCount; cell++) {
+        patterns.update(codes, cell, positions.digit(slice, record, cell));
+      }
+      double score = 0;
+      for (int p = 0; p < codes.length; p++) {
+        score += weights[patterns.getFamily(p)][codes[p]];
+      }
+      double predicted = 1 / (1 + Math.exp(-score / SCALE));
+      double miss = predicted - positions.result(slice, record);
+      gradient.error += miss * miss;
+      double slope = 2 * miss * predicted * (1 - predicted) / SCALE;
+      for (int p = 0; p < codes.length; p++) {
+        int f = patterns.getFamily(p);
+        gradient.sums[f][codes[p]] += slope;
+        gradient.counts[f][codes[p]]++;
+      }
+    }
+    return gradient;
+  }
+
+  /**
+   * The gradient of the squared error over some positions: the sum of the slopes of every code
+   * scored, how many times each code was scored, and the summed squared error itself.
+   */
+  private static final class Gradient {
+    private final double[][] sums = new double[PatternSet.FAMILY_COUNT][];
+    private final long[][] counts = new long[PatternSet.FAMILY_COUNT][];
+    private double error;
+
+    private Gradient(PatternSet patterns) {
+      for (int f = 0; f < PatternSet.FAMILY_COUNT; f++) {
+        sums[f] = new double[patterns.tableSize(f)];
+        counts[f] = new long[patterns.tableSize(f)];
+      }
+    }
+
+    private void add(Gradient other) {
+      for (int f = 0; f < sums.length; f++) {
+        for (int code = 0; code < sums[f].length; code++) {
+          sums[f][code] += other.sums[f][code];
+          counts[f][code] += other.counts[f][code];
+        }
+      }
+      error += other.error;
+    }
+  }
+
+  private <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<T> results = new ArrayList<T>();
+      for (Future<T> future : pool.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Tuning was interrupted");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("Tuning failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Tunes the weights of one board shape and size in a directory of weight files, starting from
+   * the weights file there if any. The arguments are the directory, the board size, optionally
+   * "s" for a square board, the number of self-play games, the search depth they are played at
+   * and the number of epochs of fitting, for example {@code . 8 s 2000 2 200}. The positions are
+   * kept next to the weights, in a file named like the weights file ending in ".positions".
+   *
+   * @param args The command line arguments.
+   * @throws IOException If a file can't be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    Path directory = Paths.get(args[0]);
+    int size = Integer.parseInt(args[1]);
+    boolean square = args[2].equals("s");
+    int next = square ? 3 : 2;
+    Reversi start = square ? new BitSquareBoard(size) : new FlatHexBoard(size);
+    String name = PatternEvaluator.weightsFileName(start.getGeometry());
+    Path positions = directory.resolve(name.replace(".weights", ".positions"));
+
+    EvaluationTuner tuner = new EvaluationTuner(Runtime.getRuntime().availableProcessors(),
+            Integer.parseInt(args[next + 1]));
+    PatternEvaluator evaluator = new PatternEvaluator(directory);
+    int count = tuner.generate(evaluator, start, Integer.parseInt(args[next]),
+            System.nanoTime(), positions);
+    System.out.println(count + " positions written");
+    double[] errors = tuner.tune(evaluator, positions, Integer.parseInt(args[next + 2]));
+    System.out.println("Error " + errors[0] + " -> " + errors[errors.length - 1]);
+    evaluator.saveWeights(start.getGeometry(), directory.resolve(name));
+  }
+}
@@ -0,0 +1,23 @@
+package controller.aistrat;
+
+import model.Disc;
+import model.ReversiReadOnly;
+
+/**
+ * Scores a position for the searching strategies. Scores are always given from the point of view
+ * of one player, so that a search can negate them when it looks at the position from the other
+ * side: a positive score means the position is good for that player and a negative one means it
+ * is good for the opponent. Searches only ask about positions that are still being played, and
+ * score finished games themselves by their final disc count.
+ */
+public interface Evaluator {
+
+  /**
+   * Scores the current position of a game for the given player.
+   *
+   * @param model  The game whose position is being scored.
+   * @param player The player the score is given for (Disc.BLACK or Disc.WHITE).
+   * @return The score of the position, higher being better for the player.
+   */
+  int evaluate(ReversiReadOnly model, Disc player);
+}
@@ -0,0 +1,23 @@
+package controller.aistrat;
+
+import model.Reversi;
+
+/**
+ * An evaluation that can keep what it needs up to date as moves are made and taken back on a
+ * board, rather than working it out from the whole board at every position scored. A search
+ * attaches it to its private board once and scores that board's positions through the evaluator
+ * it gets back.
+ */
+public interface IncrementalEvaluator extends Evaluator {
+
+  /**
+   * Starts following a board. The returned evaluator scores the board's positions from the
+   * state it keeps, and any other game the same way as this evaluator. It listens to the board
+   * through its disc listener, replacing any listener set before, and belongs to the thread
+   * playing on the board.
+   *
+   * @param board The board to follow.
+   * @return An evaluator kept up to date with the board.
+   */
+  Evaluator attach(Reversi board);
+}
@@ -0,0 +1,143 @@
+package controller.aistrat;
+
+import model.Disc;
+import model.Position;
+import model.ReversiReadOnly;
+
+/**
+ * A lookahead strategy that answers within a time budget instead of at a fixed depth. It runs
+ * the alpha-beta search one move deep, then two, then three and so on, and plays the move found
+ * by the deepest search that finished in time. The search in progress when the budget runs out
+ * is stopped and thrown away, and a deeper search is not started at all once more than half of
+ * the budget is gone, as it would almost never finish. The one move deep search always runs to
+ * the end so there is always a move to play; it only probes each cell once. When the player has
+ * a single move or must pass, it is played without searching any deeper. Each search after the
+ * first starts with a narrow aspiration window around the score of the one two moves shallower,
+ * whose lines end with the same player to move; scores swing between odd and even depths.
+ */
+public class IterativeDeepening implements ReversiStratagy {
+  private final long budgetMillis;
+  private final int maxDepth;
+  private final Evaluator evaluator;
+  private final TranspositionTable table;
+  private volatile int lastDepth;
+
+  /**
+   * Creates an iterative deepening strategy.
+   *
+   * @param budgetMillis The time allowed for each move, in milliseconds.
+   * @param maxDepth     The deepest search to run, however much time is left.
+   * @param evaluator    The evaluation used to score the positions at the end of the search.
+   * @throws IllegalArgumentException If the budget or depth is not positive or the evaluator is
+   *                                  null.
+   */
+  public IterativeDeepening(long budgetMillis, int maxDepth, Evaluator evaluator) {
+    this(budgetMillis, maxDepth, evaluator, null);
+  }
+
+  /**
+   * Creates an iterative deepening strategy that remembers the positions it searches in a
+   * transposition table. Each search then starts from the best move of the one before it and
+   * skips the positions it already scored, so the shallower searches cost little on top of the
+   * deepest. A strategy with a table searches one game at a time.
+   *
+   * @param budgetMillis The time allowed for each move, in milliseconds.
+   * @param maxDepth     The deepest search to run, however much time is left.
+   * @param evaluator    The evaluation used to score the positions at the end of the search.
+   * @param table        The transposition table to use, or null to search without one.
+   * @throws IllegalArgumentException If the budget or depth is not positive or the evaluator is
+   *                                  null.
+   */
+  public IterativeDeepening(long budgetMillis, int maxDepth, Evaluator evaluator,
+                            TranspositionTable table) {
+    if (budgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive");
+    }
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("Depth must be at least 1");
+    }
+    if (evaluator == null) {
+      throw new IllegalArgumentException("Evaluator can't be null");
+    }
+    this.budgetMillis = budgetMillis;
+    this.maxDepth = maxDepth;
+    this.evaluator = evaluator;
+    this.table = table;
+  }
+
+  /**
+   * Creates an iterative deepening strategy that searches as deep as the budget allows, scores
+   * positions by their disc count and remembers them in a 16 megabyte transposition table.
+   *
+   * @param budgetMillis The time allowed for each move, in milliseconds.
+   * @throws IllegalArgumentException If the budget is not positive.
+   */
+  public IterativeDeepening(long budgetMillis) {
+    this(budgetMillis, 64, new DiscCountEvaluator(), new TranspositionTable(16));
+  }
+
+  /**
+   * Chooses the move found by the deepest search finished within the budget.
+   *
+   * @param model The Reversi game model representing the current state of the game.
+   * @param turn  The disc color of the current player.
+   * @return The chosen move, or the pass coordinate if the player has no move.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn) {
+    return search(model).getMove();
+  }
+
+  /**
+   * Searches the model's position deeper and deeper until the budget runs out, and reports the
+   * result of the deepest search that finished. The model itself is never changed.
+   *
+   * @param model The game to search.
+   * @return The result of the deepest finished search.
+   */
+  public SearchResult search(ReversiReadOnly model) {
+    long start = System.nanoTime();
+    long budget = budgetMillis * 1000000L;
+    if (table != null) {
+      table.newSearch();
+    }
+    NegamaxSearch search = new NegamaxSearch(SearchBoards.copyOf(model), evaluator, table);
+    SearchResult best = search.searchRoot(1);
+    search.setDeadline(start + budget);
+    boolean forced = search.getRootMoveCount() <= 1;
+    int twoBack = best.getScore();
+    int oneBack = best.getScore();
+    for (int depth = 2; depth <= maxDepth && !forced && !isDecided(best); depth++) {
+      if (System.nanoTime() - start > budget / 2) {
+        break;
+      }
+      SearchResult result = search.searchAround(depth, twoBack);
+      if (search.isStopped()) {
+        break;
+      }
+      best = result;
+      twoBack = oneBack;
+      oneBack = result.getScore();
+    }
+    lastDepth = best.getDepth();
+    return new SearchResult(best.getMove(), best.getScore(), best.getDepth(), search.getNodes(),
+            best.getPrincipalVariation());
+  }
+
+  /**
+   * Checks whether a search already proved the game won or lost, so that looking deeper cannot
+   * change the move.
+   */
+  private static boolean isDecided(SearchResult result) {
+    return Math.abs(result.getScore()) > AlphaBeta.WIN_SCORE / 2;
+  }
+
+  /**
+   * Retrieves the depth of the deepest search finished for the most recent move.
+   *
+   * @return The depth reached, or 0 if no move has been chosen yet.
+   */
+  public int getLastDepth() {
+    return lastDepth;
+  }
+}
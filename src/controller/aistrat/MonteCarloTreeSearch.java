@@ -0,0 +1,380 @@
+package controller.aistrat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import model.BoardSnapshot;
+import model.Coordinate;
+import model.Disc;
+import model.Geometry;
+import model.Position;
+import model.Reversi;
+import model.ReversiReadOnly;
+
+/**
+ * A Monte Carlo tree search strategy. Rather than scoring positions with an evaluation, it plays
+ * thousands of quick games to the end from the current position and grows a tree of the moves
+ * that keep winning them, picking which move to explore next by the UCT rule: the winning rate
+ * of a move plus a bonus that shrinks the more the move has been tried. When the time budget
+ * runs out it plays the move tried the most. It copes far better than alpha-beta with boards so
+ * large that every position has dozens of moves.
+ *
+ * <p>Several threads can grow the same tree at once. A thread walking down the tree counts a
+ * visit to every move it passes before its game is over, as though that game were lost, so the
+ * other threads are steered towards different moves meanwhile; the result replaces the loss once
+ * the game is finished. Each thread plays on its own board copied from a snapshot, plays its
+ * quick games on it with makeMove and takes them back with undoMove, so a game played out costs
+ * no allocation. The quick games play a random corner whenever one is free and a random move
+ * otherwise.
+ */
+public class MonteCarloTreeSearch implements ReversiStratagy {
+  private static final int PASS = -1;
+
+  private final ForkJoinPool pool;
+  private final int threads;
+  private final long budgetMillis;
+  private final double exploration;
+  private final long seed;
+  private volatile long lastPlayouts;
+  private volatile double playoutsPerSecond;
+  // set to end the playouts of the move in progress early, when the caller is interrupted
+  private volatile boolean stopped;
+
+  /**
+   * Creates a Monte Carlo tree search strategy.
+   *
+   * @param threads      The number of threads growing the tree.
+   * @param budgetMillis The time allowed for each move, in milliseconds.
+   * @param exploration  How strongly less tried moves are favored; the square root of 2 is the
+   *                     usual choice.
+   * @param seed         The seed of the random moves, so that games can be replayed.
+   * @throws IllegalArgumentException If the thread count, budget or exploration is not positive.
+   */
+  public MonteCarloTreeSearch(int threads, long budgetMillis, double exploration, long seed) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    if (budgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive");
+    }
+    if (exploration <= 0 || Double.isNaN(exploration)) {
+      throw new IllegalArgumentException("Exploration must be positive");
+    }
+    this.pool = new ForkJoinPool(threads);
+    this.threads = threads;
+    this.budgetMillis = budgetMillis;
+    this.exploration = exploration;
+    this.seed = seed;
+  }
+
+  /**
+   * Creates a Monte Carlo tree search strategy with the usual exploration constant and a random
+   * seed.
+   *
+   * @param threads      The number of threads growing the tree.
+   * @param budgetMillis The time allowed for each move, in milliseconds.
+   * @throws IllegalArgumentException If the thread count or budget is not positive.
+   */
+  public MonteCarloTreeSearch(int threads, long budgetMillis) {
+    this(threads, budgetMillis, Math.sqrt(2), System.nanoTime());
+  }
+
+  /**
+   * Chooses the move tried the most within the time budget. If the calling thread is
+   * interrupted, the playouts stop early and the move tried the most so far is chosen, once
+   * every thread has finished the game it was playing, so the next move has all the threads to
+   * itself.
+   *
+   * @param model The Reversi game model representing the current state of the game.
+   * @param turn  The disc color of the current player.
+   * @return The chosen move, or the pass coordinate if the player has no move.
+   */
+  @Override
+  public synchronized Position chooseMove(ReversiReadOnly model, Disc turn) {
+    long start = System.nanoTime();
+    long deadline = start + budgetMillis * 1000000L;
+    BoardSnapshot snapshot = model.snapshot();
+    Geometry geometry = snapshot.getGeometry();
+    Node root = new Node(null, PASS, null);
+    Playouts first = new Playouts(SearchBoards.fromSnapshot(snapshot), seed);
+    first.expand(root);
+    if (root.children.length == 0 || root.children[0].move == PASS) {
+      lastPlayouts = 0;
+      playoutsPerSecond = 0;
+      return new Coordinate(model.getSize(), model.getSize());
+    }
+    long playouts = 0;
+    if (root.children.length > 1) {
+      stopped = false;
+      List<Future<Long>> running = new ArrayList<Future<Long>>();
+      for (int i = 0; i < threads; i++) {
+        Playouts worker = i == 0 ? first
+                : new Playouts(SearchBoards.fromSnapshot(snapshot), seed + i);
+        running.add(pool.submit(() -> worker.run(root, deadline)));
+      }
+      boolean interrupted = false;
+      Throwable failure = null;
+      for (Future<Long> task : running) {
+        while (true) {
+          try {
+            playouts += task.get();
+            break;
+          } catch (InterruptedException e) {
+            interrupted = true;
+            stopped = true;
+          } catch (ExecutionException e) {
+            failure = e.getCause();
+            stopped = true;
+            break;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure != null) {
+        throw new IllegalStateException("A search thread failed", failure);
+      }
+    }
+    double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+    lastPlayouts = playouts;
+    playoutsPerSecond = playouts / seconds;
+
+    Node best = root.children[0];
+    for (Node child : root.children) {
+      if (child.visits > best.visits) {
+        best = child;
+      }
+    }
+    return geometry.getPosition(best.move);
+  }
+
+  /**
+   * Retrieves the number of games played out for the most recent move.
+   *
+   * @return The number of playouts.
+   */
+  public long getLastPlayouts() {
+    return lastPlayouts;
+  }
+
+  /**
+   * Retrieves the rate, over all threads, at which games were played out for the most recent
+   * move.
+   *
+   * @return The number of playouts per second.
+   */
+  public double getPlayoutsPerSecond() {
+    return playoutsPerSecond;
+  }
+
+  /**
+   * A move in the search tree. Its visits and reward are read and written under the lock of its
+   * parent, which is held while a thread picks one of the parent's children.
+   */
+  private static final class Node {
+    private final Node parent;
+    private final int move;
+    // the player who made the move leading here, whom the rewards are counted for
+    private final Disc mover;
+    private volatile Node[] children;
+    private boolean terminal;
+    private int visits;
+    // twice the number of games won, so that a tie counts as one
+    private long reward;
+
+    private Node(Node parent, int move, Disc mover) {
+      this.parent = parent;
+      this.move = move;
+      this.mover = mover;
+    }
+  }
+
+  /**
+   * One thread's board and scratch space, playing games out from the shared tree.
+   */
+  private final class Playouts {
+    private final Reversi board;
+    private final Geometry geometry;
+    private final SplittableRandom random;
+    private final int[] moves;
+    private final int[] corners;
+    // whether the child picked by the latest select had never been visited before
+    private boolean pickedNew;
+
+    private Playouts(Reversi board, long seed) {
+      this.board = board;
+      this.geometry = board.getGeometry();
+      this.random = new SplittableRandom(seed);
+      this.moves = new int[geometry.getCellCount()];
+      this.corners = new int[geometry.getCellCount()];
+    }
+
+    /**
+     * Plays games out until the deadline, or until the search is stopped.
+     *
+     * @return The number of games played.
+     */
+    private long run(Node root, long deadline) {
+      long games = 0;
+      while (!stopped && System.nanoTime() - deadline < 0) {
+        playOnce(root);
+        games++;
+      }
+      return games;
+    }
+
+    private void playOnce(Node root) {
+      int played = 0;
+      Node node = root;
+      // walk down the tree, counting a lost visit to every move taken
+      while (true) {
+        Node[] children = node.children;
+        if (children == null) {
+          synchronized (node) {
+            if (node.children == null) {
+              expand(node);
+            }
+          }
+          children = node.children;
+        }
+        if (node.terminal) {
+          break;
+        }
+        Node next = select(node, children);
+        play(next.move);
+        played++;
+        node = next;
+        if (pickedNew) {
+          break;
+        }
+      }
+      Disc winner = node.terminal ? winner() : playOut(node.move == PASS);
+      for (Node step = node; step.parent != null; step = step.parent) {
+        long gained = winner == null ? 1 : winner == step.mover ? 2 : 0;
+        synchronized (step.parent) {
+          step.reward += gained;
+        }
+      }
+      for (int i = 0; i < played; i++) {
+        board.undoMove();
+      }
+    }
+
+    /**
+     * Picks the child with the best UCT value and counts a visit to it before its game is
+     * played, so other threads see it as tried and lost in the meantime.
+     */
+    private Node select(Node node, Node[] children) {
+      synchronized (node) {
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int total = 0;
+        for (Node child : children) {
+          total += child.visits;
+        }
+        double logTotal = Math.log(Math.max(total, 1));
+        for (Node child : children) {
+          double value;
+          if (child.visits == 0) {
+            value = Double.POSITIVE_INFINITY;
+          } else {
+            value = child.reward / (2.0 * child.visits)
+                    + exploration * Math.sqrt(logTotal / child.visits);
+          }
+          if (value > bestValue) {
+            bestValue = value;
+            best = child;
+          }
+        }
+        pickedNew = best.visits == 0;
+        best.visits++;
+        return best;
+      }
+    }
+
+    /**
+     * Lists the moves from a node's position as its children: the player's legal moves, or a
+     * single pass if there are none. A position where neither player can move is marked as the
+     * end of the game instead.
+     */
+    private void expand(Node node) {
+      Disc player = board.currentColor();
+      int count = board.listMoves(player, moves);
+      Node[] children;
+      if (count > 0) {
+        children = new Node[count];
+        for (int i = 0; i < count; i++) {
+          children[i] = new Node(node, moves[i], player);
+        }
+      } else if (node.move == PASS && node.parent != null) {
+        node.terminal = true;
+        children = new Node[0];
+      } else {
+        children = new Node[] {new Node(node, PASS, player)};
+      }
+      node.children = children;
+    }
+
+    private void play(int move) {
+      if (move == PASS) {
+        board.passTurn();
+      } else {
+        board.makeMove(geometry.getPosition(move));
+      }
+    }
+
+    /**
+     * Plays random moves until neither player can move, then takes them all back.
+     *
+     * @param passed Whether the position was reached by a pass.
+     * @return The winner of the game, or null for a tie.
+     */
+    private Disc playOut(boolean passed) {
+      int played = 0;
+      while (true) {
+        int count = board.listMoves(board.currentColor(), moves);
+        int cornerCount = 0;
+        for (int i = 0; i < count; i++) {
+          if (geometry.isCorner(moves[i])) {
+            corners[cornerCount++] = moves[i];
+          }
+        }
+        if (count == 0) {
+          if (passed) {
+            break;
+          }
+          board.passTurn();
+          passed = true;
+        } else if (cornerCount > 0) {
+          board.makeMove(geometry.getPosition(corners[random.nextInt(cornerCount)]));
+          passed = false;
+        } else {
+          board.makeMove(geometry.getPosition(moves[random.nextInt(count)]));
+          passed = false;
+        }
+        played++;
+      }
+      Disc winner = winner();
+      for (int i = 0; i < played; i++) {
+        board.undoMove();
+      }
+      return winner;
+    }
+
+    private Disc winner() {
+      int black = board.getScore(Disc.BLACK);
+      int white = board.getScore(Disc.WHITE);
+      if (black > white) {
+        return Disc.BLACK;
+      } else if (white > black) {
+        return Disc.WHITE;
+      }
+      return null;
+    }
+  }
+}
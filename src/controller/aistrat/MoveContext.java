@@ -0,0 +1,148 @@
+package controller.aistrat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import model.Coordinate;
+import model.Disc;
+import model.Geometry;
+import model.Position;
+import model.ReversiReadOnly;
+
+/**
+ * The legal moves of the player to move in one position, with the number of discs each captures
+ * and which discs those are, worked out once for every strategy asked to choose that turn's move.
+ * Strategies made of other strategies, such as {@link TryTwo}, build one context per turn and
+ * hand it to each strategy they ask, so however many of them look at the moves, the model
+ * generates them only once.
+ *
+ * <p>Everything is worked out the first time it is asked for and kept: the moves on the first
+ * call to {@link #getMoves}, in the model's own order, and the capture count and captured discs
+ * of each move on the first call asking about that move. A context belongs to one turn of one
+ * game on one thread and must not be used once a move has been made.
+ */
+public final class MoveContext {
+  private final ReversiReadOnly model;
+  private List<Position> moves;
+  private HashMap<Position, Integer> indexes;
+  // the capture count of each move, -1 until asked for
+  private int[] flipCounts;
+  private List<List<Position>> flips;
+
+  /**
+   * Creates the context of the model's current position.
+   *
+   * @param model The game whose turn it is.
+   * @throws IllegalArgumentException If the model is null.
+   */
+  public MoveContext(ReversiReadOnly model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model can't be null");
+    }
+    this.model = model;
+  }
+
+  /**
+   * Retrieves the game this is the context of.
+   *
+   * @return The game.
+   */
+  public ReversiReadOnly getModel() {
+    return model;
+  }
+
+  /**
+   * Retrieves the legal moves of the player to move, in the order the model lists them.
+   *
+   * @return The moves, which can't be modified.
+   */
+  public List<Position> getMoves() {
+    if (moves == null) {
+      ArrayList<Position> possible = model.getPossibleMoves();
+      moves = Collections.unmodifiableList(possible);
+      indexes = new HashMap<Position, Integer>();
+      for (int i = 0; i < possible.size(); i++) {
+        indexes.put(possible.get(i), i);
+      }
+      flipCounts = new int[possible.size()];
+      Arrays.fill(flipCounts, -1);
+      flips = new ArrayList<List<Position>>(Collections.nCopies(possible.size(),
+              (List<Position>) null));
+    }
+    return moves;
+  }
+
+  /**
+   * Retrieves the number of discs a move captures, as the model's checkMove counts them.
+   *
+   * @param move The move.
+   * @return The number of discs it captures, or 0 if it is not a legal move.
+   */
+  public int getFlipCount(Position move) {
+    int index = indexOf(move);
+    if (index < 0) {
+      return 0;
+    }
+    if (flipCounts[index] < 0) {
+      flipCounts[index] = model.checkMove(model, move);
+    }
+    return flipCounts[index];
+  }
+
+  /**
+   * Retrieves the positions of the discs a move captures.
+   *
+   * @param move The move.
+   * @return The captured discs nearest the move first along each line, which can't be modified,
+   *         or an empty list if it is not a legal move.
+   */
+  public List<Position> getFlips(Position move) {
+    int index = indexOf(move);
+    if (index < 0) {
+      return Collections.emptyList();
+    }
+    if (flips.get(index) == null) {
+      Geometry geometry = model.getGeometry();
+      Disc player = model.currentColor();
+      Disc opponent = player == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+      int cell = geometry.index(move.getFirstCoordinate(), move.getSecondCoordinate());
+      List<Position> captured = new ArrayList<Position>();
+      for (int dir = 0; dir < geometry.getDirectionCount(); dir++) {
+        int[] ray = geometry.ray(cell, dir);
+        int run = 0;
+        while (run < ray.length && discAt(geometry, ray[run]) == opponent) {
+          run++;
+        }
+        if (run > 0 && run < ray.length && discAt(geometry, ray[run]) == player) {
+          for (int step = 0; step < run; step++) {
+            captured.add(geometry.getPosition(ray[step]));
+          }
+        }
+      }
+      flips.set(index, Collections.unmodifiableList(captured));
+    }
+    return flips.get(index);
+  }
+
+  /**
+   * Retrieves the position strategies answer with when they find no move to play.
+   *
+   * @return The pass position, one past the board's size on both coordinates.
+   */
+  public Position getPass() {
+    return new Coordinate(model.getSize(), model.getSize());
+  }
+
+  private int indexOf(Position move) {
+    getMoves();
+    Integer index = move == null ? null : indexes.get(move);
+    return index == null ? -1 : index;
+  }
+
+  private Disc discAt(Geometry geometry, int cell) {
+    return model.getDiscAt(geometry.getFirstCoordinate(cell), geometry.getSecondCoordinate(cell));
+  }
+}
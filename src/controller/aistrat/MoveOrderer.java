@@ -0,0 +1,135 @@
+package controller.aistrat;
+
+import java.util.Arrays;
+
+import model.Geometry;
+import model.Reversi;
+
+/**
+ * Puts the moves of a position in the order a search should try them, so that the move that
+ * refutes the position is most often tried first and the rest are cut off. Moves are tried in
+ * tiers: the best move remembered for the position from an earlier search, then the killer
+ * moves that caused a cutoff at the same ply elsewhere in the tree, then everything else. The
+ * rest are sorted by how few replies they leave the opponent, a cheap guess at how good they
+ * are, with moves taking a corner ahead and ties going to the move with the better history of
+ * causing cutoffs anywhere in the tree.
+ *
+ * <p>An orderer keeps its killers and history for one search on one thread at a time; searches
+ * running side by side each need their own.
+ */
+class MoveOrderer {
+  // moves searched this many moves deep or more are sorted by the opponent's replies; below
+  // that, playing each move out to count them costs more than the better order saves
+  private static final int MOBILITY_DEPTH = 3;
+
+  private static final int HASH_MOVE = Integer.MAX_VALUE;
+  private static final int FIRST_KILLER = Integer.MAX_VALUE - 1;
+  private static final int SECOND_KILLER = Integer.MAX_VALUE - 2;
+  // one reply less for the opponent outweighs any history
+  private static final int MOBILITY_WEIGHT = 1 << 20;
+  private static final int CORNER_BONUS = 2 * MOBILITY_WEIGHT;
+  // history scores are halved once they pass this, keeping them below the mobility weight
+  private static final int HISTORY_LIMIT = MOBILITY_WEIGHT / 2;
+
+  private final Geometry geometry;
+  private final int[] history;
+  private final int[] replies;
+  private int[][] killers = new int[0][];
+  private int[][] keys = new int[0][];
+
+  /**
+   * Creates an orderer for boards of the given geometry, with no killers or history.
+   *
+   * @param geometry The geometry of the boards searched.
+   */
+  MoveOrderer(Geometry geometry) {
+    this.geometry = geometry;
+    this.history = new int[geometry.getCellCount()];
+    this.replies = new int[geometry.getCellCount()];
+  }
+
+  /**
+   * Sorts the moves of the board's position, best first.
+   *
+   * @param board    The board, with the player to move on turn. It is played on and restored.
+   * @param moves    The geometry indexes of the legal moves, sorted in place.
+   * @param count    The number of moves.
+   * @param ply      How many moves and passes deep the position is in the search.
+   * @param depth    How many moves deeper the search will look below this position.
+   * @param hashMove The best move remembered for the position, or -1 if there is none.
+   */
+  void order(Reversi board, int[] moves, int count, int ply, int depth, int hashMove) {
+    grow(ply);
+    int[] score = keys[ply];
+    int[] killer = killers[ply];
+    for (int i = 0; i < count; i++) {
+      int move = moves[i];
+      if (move == hashMove) {
+        score[i] = HASH_MOVE;
+      } else if (move == killer[0]) {
+        score[i] = FIRST_KILLER;
+      } else if (move == killer[1]) {
+        score[i] = SECOND_KILLER;
+      } else {
+        score[i] = history[move];
+        if (depth >= MOBILITY_DEPTH && count > 1) {
+          board.makeMove(geometry.getPosition(move));
+          score[i] -= board.listMoves(board.currentColor(), replies) * MOBILITY_WEIGHT;
+          board.undoMove();
+          if (geometry.isCorner(move)) {
+            score[i] += CORNER_BONUS;
+          }
+        }
+      }
+    }
+    // insertion sort, stable so equal moves keep the geometry order they were listed in
+    for (int i = 1; i < count; i++) {
+      int move = moves[i];
+      int key = score[i];
+      int at = i;
+      while (at > 0 && score[at - 1] < key) {
+        score[at] = score[at - 1];
+        moves[at] = moves[at - 1];
+        at--;
+      }
+      score[at] = key;
+      moves[at] = move;
+    }
+  }
+
+  /**
+   * Records that a move caused a cutoff, making it a killer at its ply and raising its history
+   * by more the deeper the search below it was.
+   *
+   * @param move  The geometry index of the move.
+   * @param ply   The ply the cutoff happened at.
+   * @param depth How many moves deeper the search looked below the position.
+   */
+  void cutoff(int move, int ply, int depth) {
+    grow(ply);
+    int[] killer = killers[ply];
+    if (killer[0] != move) {
+      killer[1] = killer[0];
+      killer[0] = move;
+    }
+    history[move] += depth * depth;
+    if (history[move] > HISTORY_LIMIT) {
+      for (int cell = 0; cell < history.length; cell++) {
+        history[cell] /= 2;
+      }
+    }
+  }
+
+  private void grow(int ply) {
+    if (ply >= killers.length) {
+      int old = killers.length;
+      int length = Math.max(ply + 1, old * 2);
+      killers = Arrays.copyOf(killers, length);
+      keys = Arrays.copyOf(keys, length);
+      for (int i = old; i < length; i++) {
+        killers[i] = new int[] {-1, -1};
+        keys[i] = new int[geometry.getCellCount()];
+      }
+    }
+  }
+}
@@ -0,0 +1,412 @@
+package controller.aistrat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import model.Coordinate;
+import model.Disc;
+import model.Geometry;
+import model.Position;
+import model.Reversi;
+
+/**
+ * The search tree walked by the lookahead strategies: a negamax search with alpha-beta pruning
+ * over a single private board. Each move is played on the board and taken back with undoMove
+ * once its subtree has been scored, so no position is ever copied. Legal moves are listed by
+ * the board as geometry indexes into one reusable array per ply. Given a
+ * transposition table, the search skips positions already searched deeply enough and tries the
+ * best move remembered for a position before the others.
+ *
+ * <p>Every move after the first at a position is searched with a null window, which only
+ * proves it no better than the best so far, and is searched again with the full window only
+ * when it turns out better; as the moves are well ordered that is rare. Searched from the score
+ * of a shallower search, the root starts with a narrow aspiration window around it and widens
+ * the window only if the score falls outside. Along the way the search keeps the principal
+ * variation, the line of best moves for both sides, in one array per ply.
+ *
+ * <p>A search object belongs to one search at a time and is not safe to share between threads,
+ * apart from {@link #stop()}, which may be called from any thread.
+ */
+final class NegamaxSearch {
+  /**
+   * A bound above every score a search can return.
+   */
+  static final int INFINITY = 2 * AlphaBeta.WIN_SCORE;
+
+  // how many positions are visited between looks at the clock, one less than a power of two
+  private static final int CLOCK_INTERVAL = 255;
+  // the half width of the first aspiration window around the score of a shallower search,
+  // widened four times over on each miss
+  private static final int ASPIRATION_WINDOW = 2;
+
+  private final Reversi board;
+  private final Geometry geometry;
+  private final Evaluator evaluator;
+  private final TranspositionTable table;
+  private final Position pass;
+  private final MoveOrderer orderer;
+  private int[][] moveLists = new int[0][];
+  // pv[ply] holds the best line found from the position at that ply, pvLength[ply] long
+  private int[][] pv = new int[0][];
+  private int[] pvLength = new int[0];
+  private long nodes;
+  private int rootMoves;
+  private int rootBest = -1;
+  private long deadline;
+  private boolean timed;
+  private volatile boolean stopped;
+
+  /**
+   * Prepares a search of the given board.
+   *
+   * @param board     The private board to search on, which is played on and restored.
+   * @param evaluator The evaluation used to score positions at the end of the search, attached
+   *                  to the board if it can follow it incrementally.
+   * @param table     The transposition table to share results through, or null for none.
+   */
+  NegamaxSearch(Reversi board, Evaluator evaluator, TranspositionTable table) {
+    this(board, evaluator, table, new MoveOrderer(board.getGeometry()));
+  }
+
+  /**
+   * Prepares a search of the given board that puts its moves in order with the given orderer.
+   *
+   * @param board     The private board to search on, which is played on and restored.
+   * @param evaluator The evaluation used to score positions at the end of the search, attached
+   *                  to the board if it can follow it incrementally.
+   * @param table     The transposition table to share results through, or null for none.
+   * @param orderer   The move orderer of this search alone, for boards of the board's geometry.
+   */
+  NegamaxSearch(Reversi board, Evaluator evaluator, TranspositionTable table,
+                MoveOrderer orderer) {
+    this.board = board;
+    this.geometry = board.getGeometry();
+    this.evaluator = evaluator instanceof IncrementalEvaluator
+            ? ((IncrementalEvaluator) evaluator).attach(board) : evaluator;
+    this.table = table;
+    this.pass = new Coordinate(board.getSize(), board.getSize());
+    this.orderer = orderer;
+  }
+
+  /**
+   * Searches the board's position to the given depth and picks the best move for the player to
+   * move. The first of several equally good moves to be searched is chosen: the one remembered
+   * by the table or found by the previous call if any, and otherwise the one the move orderer
+   * puts first. If the search is stopped before it finishes, the result is meaningless and
+   * {@link #isStopped()} says so.
+   *
+   * @param depth The number of moves to look ahead, at least 1.
+   * @return The chosen move and its score, or the pass coordinate if there is no move.
+   */
+  SearchResult searchRoot(int depth) {
+    return searchRoot(depth, -INFINITY, INFINITY);
+  }
+
+  /**
+   * Searches the board's position to the given depth inside an aspiration window around the
+   * score of a shallower search, widening it until the score falls inside.
+   *
+   * @param depth The number of moves to look ahead, at least 1.
+   * @param guess The score expected, usually that of a shallower search.
+   * @return The chosen move and its score, or the pass coordinate if there is no move.
+   */
+  SearchResult searchAround(int depth, int guess) {
+    if (Math.abs(guess) > AlphaBeta.WIN_SCORE / 2) {
+      return searchRoot(depth);
+    }
+    int window = ASPIRATION_WINDOW;
+    int alpha = guess - window;
+    int beta = guess + window;
+    while (true) {
+      SearchResult result = searchRoot(depth, alpha, beta);
+      int score = result.getScore();
+      if (stopped || (score > alpha && score < beta)) {
+        return result;
+      }
+      window *= 4;
+      boolean wide = window > AlphaBeta.WIN_SCORE / 2;
+      if (score <= alpha) {
+        alpha = wide ? -INFINITY : score - window;
+      } else {
+        beta = wide ? INFINITY : score + window;
+      }
+    }
+  }
+
+  /**
+   * Searches the board's position with the given window. A score at or below alpha is only an
+   * upper bound and one at or above beta only a lower bound, and neither comes with a line of
+   * play worth reporting.
+   */
+  private SearchResult searchRoot(int depth, int alpha, int beta) {
+    Disc player = board.currentColor();
+    int count = generateMoves(0, player);
+    rootMoves = count;
+    pvLength[0] = 0;
+    if (count == 0) {
+      int score = negamax(depth, alpha, beta, 0, false);
+      return new SearchResult(pass, score, depth, nodes, principalVariation());
+    }
+    nodes++;
+    int[] moves = moveLists[0];
+    int hashMove = rootBest;
+    if (table != null) {
+      long entry = table.probe(board.getPositionHash());
+      if (entry != 0) {
+        hashMove = TranspositionTable.getMove(entry);
+      }
+    }
+    orderer.order(board, moves, count, 0, depth - 1, hashMove);
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestIndex = -1;
+    Position bestMove = pass;
+    for (int i = 0; i < count; i++) {
+      Position move = geometry.getPosition(moves[i]);
+      board.makeMove(move);
+      int score = searchChild(i, depth, alpha, beta, 1);
+      board.undoMove();
+      if (score > best) {
+        best = score;
+        bestMove = move;
+        bestIndex = moves[i];
+        if (score > alpha) {
+          alpha = score;
+          updatePrincipalVariation(0, moves[i]);
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    if (!stopped) {
+      if (best > originalAlpha) {
+        rootBest = bestIndex;
+      }
+      if (table != null) {
+        table.store(board.getPositionHash(), depth, bound(best, originalAlpha, beta), best,
+                bestIndex);
+      }
+    }
+    return new SearchResult(bestMove, best, depth, nodes, principalVariation());
+  }
+
+  /**
+   * Scores the board's position for the player to move, looking the given number of moves
+   * ahead. The returned score is exact when it falls between alpha and beta; otherwise it is
+   * only a bound on the same side of the window.
+   *
+   * @param depth  The number of moves still to look ahead.
+   * @param alpha  The score the player to move is already sure of elsewhere.
+   * @param beta   The score the opponent is already sure of elsewhere.
+   * @param ply    How many moves and passes deep the position is, selecting its move list.
+   * @param passed Whether the position was reached by the opponent passing.
+   * @return The score of the position.
+   */
+  private int negamax(int depth, int alpha, int beta, int ply, boolean passed) {
+    nodes++;
+    pvLength[ply] = 0;
+    if (timed && (nodes & CLOCK_INTERVAL) == 0
+            && (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted())) {
+      stopped = true;
+    }
+    if (stopped) {
+      return 0;
+    }
+    Disc player = board.currentColor();
+    if (depth <= 0) {
+      return evaluator.evaluate(board, player);
+    }
+    long hash = board.getPositionHash();
+    int hashMove = -1;
+    if (table != null) {
+      long entry = table.probe(hash);
+      if (entry != 0) {
+        hashMove = TranspositionTable.getMove(entry);
+        if (TranspositionTable.getDepth(entry) >= depth) {
+          int score = TranspositionTable.getScore(entry);
+          int bound = TranspositionTable.getBound(entry);
+          if (bound == TranspositionTable.EXACT
+                  || (bound == TranspositionTable.LOWER && score >= beta)
+                  || (bound == TranspositionTable.UPPER && score <= alpha)) {
+            return score;
+          }
+        }
+      }
+    }
+    int count = generateMoves(ply, player);
+    if (count == 0) {
+      if (passed) {
+        return finalScore(player);
+      }
+      board.passTurn();
+      int score = -negamax(depth, -beta, -alpha, ply + 1, true);
+      board.undoMove();
+      updatePrincipalVariation(ply, -1);
+      return score;
+    }
+    int[] moves = moveLists[ply];
+    orderer.order(board, moves, count, ply, depth - 1, hashMove);
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = -1;
+    for (int i = 0; i < count; i++) {
+      board.makeMove(geometry.getPosition(moves[i]));
+      int score = searchChild(i, depth, alpha, beta, ply + 1);
+      board.undoMove();
+      if (score > best) {
+        best = score;
+        bestMove = moves[i];
+        if (score > alpha) {
+          alpha = score;
+          updatePrincipalVariation(ply, moves[i]);
+          if (alpha >= beta) {
+            orderer.cutoff(moves[i], ply, depth);
+            break;
+          }
+        }
+      }
+    }
+    if (table != null && !stopped) {
+      table.store(hash, depth, bound(best, originalAlpha, beta), best, bestMove);
+    }
+    return best;
+  }
+
+  /**
+   * Scores the position after the move just played, the given one in its position's move list.
+   * The first move is searched with the full window; the others with a null window first, and
+   * again with the full window only if they beat alpha.
+   *
+   * @return The score of the move for the player who made it.
+   */
+  private int searchChild(int index, int depth, int alpha, int beta, int ply) {
+    if (index == 0) {
+      return -negamax(depth - 1, -beta, -alpha, ply, false);
+    }
+    int score = -negamax(depth - 1, -alpha - 1, -alpha, ply, false);
+    if (score > alpha && score < beta) {
+      score = -negamax(depth - 1, -beta, -alpha, ply, false);
+    }
+    return score;
+  }
+
+  private static int bound(int score, int alpha, int beta) {
+    if (score <= alpha) {
+      return TranspositionTable.UPPER;
+    } else if (score >= beta) {
+      return TranspositionTable.LOWER;
+    }
+    return TranspositionTable.EXACT;
+  }
+
+  /**
+   * Makes the line from a ply the given move followed by the line found after it.
+   *
+   * @param ply  The ply of the position the move is played from.
+   * @param move The geometry index of the move, or -1 for a pass.
+   */
+  private void updatePrincipalVariation(int ply, int move) {
+    int length = pvLength[ply + 1];
+    pv[ply][0] = move;
+    System.arraycopy(pv[ply + 1], 0, pv[ply], 1, length);
+    pvLength[ply] = length + 1;
+  }
+
+  private List<Position> principalVariation() {
+    List<Position> line = new ArrayList<Position>(pvLength[0]);
+    for (int i = 0; i < pvLength[0]; i++) {
+      line.add(pv[0][i] < 0 ? pass : geometry.getPosition(pv[0][i]));
+    }
+    return line;
+  }
+
+  /**
+   * Fills the move list of a ply with the index of every cell the player can play.
+   *
+   * @param ply    The ply whose move list is filled.
+   * @param player The player to move.
+   * @return The number of legal moves.
+   */
+  private int generateMoves(int ply, Disc player) {
+    // the position's children at the next ply keep their lines there even at the leaves
+    if (ply + 1 >= moveLists.length) {
+      int old = moveLists.length;
+      int length = Math.max(ply + 2, old * 2);
+      moveLists = Arrays.copyOf(moveLists, length);
+      pv = Arrays.copyOf(pv, length);
+      pvLength = Arrays.copyOf(pvLength, length);
+      for (int i = old; i < length; i++) {
+        moveLists[i] = new int[geometry.getCellCount()];
+        pv[i] = new int[length + 2 * geometry.getCellCount()];
+      }
+    }
+    return board.listMoves(player, moveLists[ply]);
+  }
+
+  /**
+   * Scores a finished game for the given player: a win or loss outweighs any evaluation, and is
+   * better or worse the more discs it is won or lost by.
+   *
+   * @param player The player the score is given for.
+   * @return The final score of the game.
+   */
+  private int finalScore(Disc player) {
+    Disc opponent = player == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+    int difference = board.getScore(player) - board.getScore(opponent);
+    if (difference > 0) {
+      return AlphaBeta.WIN_SCORE + difference;
+    } else if (difference < 0) {
+      return -AlphaBeta.WIN_SCORE + difference;
+    }
+    return 0;
+  }
+
+  /**
+   * Sets the time after which the search stops itself, as a value of {@link System#nanoTime()}.
+   * The clock is only looked at every few hundred positions, so the search may run a little
+   * past the deadline. A search with a deadline also stops early if its thread is interrupted.
+   *
+   * @param deadline The time at which to stop.
+   */
+  void setDeadline(long deadline) {
+    this.deadline = deadline;
+    this.timed = true;
+  }
+
+  /**
+   * Asks the search to stop as soon as possible. It unwinds every move it has played, leaving
+   * the board as it found it, and its current result is thrown away.
+   */
+  void stop() {
+    stopped = true;
+  }
+
+  /**
+   * Checks whether the search was stopped, by its deadline or by {@link #stop()}.
+   *
+   * @return True if the search was stopped, otherwise false.
+   */
+  boolean isStopped() {
+    return stopped;
+  }
+
+  /**
+   * Retrieves the number of legal moves found at the root by the latest search.
+   *
+   * @return The number of moves the player to move has.
+   */
+  int getRootMoveCount() {
+    return rootMoves;
+  }
+
+  /**
+   * Retrieves the number of positions visited so far.
+   *
+   * @return The number of nodes searched.
+   */
+  long getNodes() {
+    return nodes;
+  }
+}
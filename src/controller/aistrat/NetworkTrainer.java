@@ -0,0 +1,169 @@
+package controller.aistrat;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import model.Geometry;
+
+/**
+ * Trains the networks read by {@link NnueEvaluator} on a position file of self-play games
+ * written by {@link EvaluationTuner}. Like the tuner it fits the network's output, turned into
+ * the chance of black winning by a logistic curve, to the results of the games, but by
+ * stochastic gradient descent: the positions are visited in a new random order every epoch,
+ * each turned or mirrored by a random symmetry of the board, and the weights are moved after
+ * each one. Training is done in doubles; the weights are rounded to
+ * the network's fixed-point shorts when the network file is written.
+ */
+public class NetworkTrainer {
+  private static final double LEARNING_RATE = 0.01;
+  // weights are started at random within this much of zero
+  private static final double INITIAL_SPREAD = 0.1;
+
+  private final int hidden;
+  private final long seed;
+
+  /**
+   * Creates a trainer.
+   *
+   * @param hidden The number of values in the hidden layer of the networks trained, at least 1.
+   * @param seed   The seed of the starting weights and the order positions are visited in.
+   * @throws IllegalArgumentException If the hidden layer size is less than 1.
+   */
+  public NetworkTrainer(int hidden, long seed) {
+    if (hidden < 1) {
+      throw new IllegalArgumentException("Hidden layer size must be at least 1");
+    }
+    this.hidden = hidden;
+    this.seed = seed;
+  }
+
+  /**
+   * Trains a network on the positions of a position file and writes it to a network file.
+   *
+   * @param positionFile A position file written by an {@link EvaluationTuner}.
+   * @param epochs       The number of passes over the positions.
+   * @param network      The network file to write, replaced if it exists.
+   * @return The mean squared error of the predicted results over each epoch.
+   * @throws IOException If a file can't be read or written, or the positions are not a position
+   *                     file.
+   */
+  public double[] train(Path positionFile, int epochs, Path network) throws IOException {
+    PositionFile positions = PositionFile.open(positionFile, 1);
+    Geometry geometry = positions.getGeometry();
+    int cellCount = geometry.getCellCount();
+    Random rand = new Random(seed);
+    double[] inputWeights = new double[2 * cellCount * hidden];
+    double[] hiddenBiases = new double[hidden];
+    double[] outputWeights = new double[hidden];
+    double[] outputBias = new double[1];
+    for (int i = 0; i < inputWeights.length; i++) {
+      inputWeights[i] = (rand.nextDouble() * 2 - 1) * INITIAL_SPREAD;
+    }
+    for (int h = 0; h < hidden; h++) {
+      // hidden values start in the middle of their range, where they can move either way
+      hiddenBiases[h] = 0.5;
+      outputWeights[h] = (rand.nextDouble() * 2 - 1) * INITIAL_SPREAD;
+    }
+
+    List<MappedByteBuffer> slices = positions.getSlices();
+    int[] order = new int[positions.getCount()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    int[][] symmetries = PatternSet.of(geometry).symmetries();
+    int[] inputs = new int[cellCount];
+    double[] values = new double[hidden];
+    double[] errors = new double[epochs];
+    for (int epoch = 0; epoch < epochs; epoch++) {
+      for (int i = order.length - 1; i > 0; i--) {
+        int other = rand.nextInt(i + 1);
+        int swap = order[i];
+        order[i] = order[other];
+        order[other] = swap;
+      }
+      double error = 0;
+      for (int position : order) {
+        // find the slice holding the position
+        MappedByteBuffer slice = slices.get(0);
+        int record = position;
+        for (int s = 0; record >= positions.countIn(slice); slice = slices.get(++s)) {
+          record -= positions.countIn(slice);
+        }
+        // each visit sees the position turned or mirrored a different way
+        int[] symmetry = symmetries[rand.nextInt(symmetries.length)];
+        int active = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+          int digit = positions.digit(slice, record, cell);
+          if (digit != 0) {
+            inputs[active++] = (2 * symmetry[cell] + digit - 1) * hidden;
+          }
+        }
+
+        double output = outputBias[0];
+        for (int h = 0; h < hidden; h++) {
+          double sum = hiddenBiases[h];
+          for (int i = 0; i < active; i++) {
+            sum += inputWeights[inputs[i] + h];
+          }
+          values[h] = sum;
+          output += Math.max(0, Math.min(1, sum)) * outputWeights[h];
+        }
+        double predicted = 1 / (1 + Math.exp(-output));
+        double miss = predicted - positions.result(slice, record);
+        error += miss * miss;
+        double slope = 2 * miss * predicted * (1 - predicted) * LEARNING_RATE;
+
+        outputBias[0] -= slope;
+        for (int h = 0; h < hidden; h++) {
+          double value = values[h];
+          if (value > 0 && value < 1) {
+            double hiddenSlope = slope * outputWeights[h];
+            hiddenBiases[h] -= hiddenSlope;
+            for (int i = 0; i < active; i++) {
+              inputWeights[inputs[i] + h] -= hiddenSlope;
+            }
+          }
+          outputWeights[h] -= slope * Math.max(0, Math.min(1, value));
+        }
+      }
+      errors[epoch] = order.length == 0 ? 0 : error / order.length;
+    }
+
+    NnueEvaluator.write(network, geometry, hidden,
+            quantize(inputWeights, NnueEvaluator.HIDDEN_ONE),
+            quantize(hiddenBiases, NnueEvaluator.HIDDEN_ONE),
+            quantize(outputWeights, NnueEvaluator.OUTPUT_ONE),
+            (int) Math.round(outputBias[0] * NnueEvaluator.HIDDEN_ONE * NnueEvaluator.OUTPUT_ONE));
+    return errors;
+  }
+
+  private static short[] quantize(double[] weights, int one) {
+    short[] quantized = new short[weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      long value = Math.round(weights[i] * one);
+      quantized[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+    return quantized;
+  }
+
+  /**
+   * Trains a network. The arguments are the position file, the network file to write, the size
+   * of the hidden layer and the number of epochs, for example
+   * {@code square8.positions square8.network 32 10}.
+   *
+   * @param args The command line arguments.
+   * @throws IOException If a file can't be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    NetworkTrainer trainer = new NetworkTrainer(Integer.parseInt(args[2]), System.nanoTime());
+    double[] errors = trainer.train(Paths.get(args[0]), Integer.parseInt(args[3]),
+            Paths.get(args[1]));
+    for (int epoch = 0; epoch < errors.length; epoch++) {
+      System.out.println("Epoch " + (epoch + 1) + ": error " + errors[epoch]);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package controller.aistrat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import model.Disc;
+import model.DiscListener;
+import model.Geometry;
+import model.Reversi;
+import model.ReversiReadOnly;
+
+/**
+ * Scores a position with a small neural network held in integers. The network has one input for
+ * every cell and color, a single hidden layer whose values are clipped between 0 and 1, and one
+ * output, the network's guess at how likely black is to win, scaled to a score. It is trained on
+ * self-play positions by {@link NetworkTrainer} and read from the network file it writes.
+ *
+ * <p>Most of the work of a network like this is the hidden layer, the sum of the input weights
+ * of every disc on the board. A search attaches the evaluator to its board and keeps that sum,
+ * the accumulator, up to date as discs change, in the manner of the NNUE networks of chess
+ * engines: placing a disc adds its row of weights to the accumulator, flipping one takes away
+ * the row of its old color and adds the row of its new one, and scoring a position is only the
+ * small output layer. Weights are stored as shorts scaled up from the trained fractions, and the
+ * accumulator is kept in ints so it can't overflow.
+ *
+ * <p>A network is trained for one board shape and size. Games on any other board are scored by
+ * a fallback evaluation.
+ *
+ * <p>The network file starts with a 16 byte header: a marker, 1 for a hexagonal board or 0 for a
+ * square one, the board size and the number of hidden values. Then come the input weights as
+ * shorts, the row of hidden weights of each cell's black input then its white input, cell by
+ * cell, the hidden biases as shorts, the output weights as shorts and the output bias as an int.
+ */
+public class NnueEvaluator implements IncrementalEvaluator {
+  static final int MAGIC = 0x524E4E55;
+  static final int HEADER_BYTES = 16;
+  // the stored value of an input weight or hidden value of 1, where hidden values are clipped
+  static final int HIDDEN_ONE = 127;
+  // the stored value of an output weight of 1
+  static final int OUTPUT_ONE = 64;
+  // the score of a network output of 1, odds of e to 1 of black winning
+  static final int SCORE_SCALE = 64;
+
+  private final Geometry geometry;
+  private final int hidden;
+  private final short[] inputWeights;
+  private final short[] hiddenBiases;
+  private final short[] outputWeights;
+  private final int outputBias;
+  private final Evaluator fallback;
+
+  /**
+   * Reads a network file.
+   *
+   * @param file     The network file written by a {@link NetworkTrainer}.
+   * @param fallback The evaluation scoring games on boards the network wasn't trained for.
+   * @throws IOException              If the file can't be read or is not a network.
+   * @throws IllegalArgumentException If the file or fallback is null.
+   */
+  public NnueEvaluator(Path file, Evaluator fallback) throws IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("Network file can't be null");
+    }
+    if (fallback == null) {
+      throw new IllegalArgumentException("Fallback evaluator can't be null");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+      throw new IOException("Not a network: " + file);
+    }
+    boolean hex = buffer.getInt() == 1;
+    int size = buffer.getInt();
+    this.hidden = buffer.getInt();
+    if (size <= 0 || hidden <= 0) {
+      throw new IOException("Not a network: " + file);
+    }
+    this.geometry = hex ? Geometry.hex(size) : Geometry.square(size);
+    long inputs = 2L * geometry.getCellCount() * hidden;
+    if (buffer.capacity() != HEADER_BYTES + 2 * (inputs + 2L * hidden) + 4) {
+      throw new IOException("Network is truncated: " + file);
+    }
+    this.inputWeights = new short[(int) inputs];
+    this.hiddenBiases = new short[hidden];
+    this.outputWeights = new short[hidden];
+    buffer.asShortBuffer().get(inputWeights).get(hiddenBiases).get(outputWeights);
+    this.outputBias = buffer.getInt(buffer.capacity() - 4);
+    this.fallback = fallback;
+  }
+
+  @Override
+  public int evaluate(ReversiReadOnly model, Disc player) {
+    if (model.getGeometry() != geometry) {
+      return fallback.evaluate(model, player);
+    }
+    int[] accumulator = new int[hidden];
+    accumulate(model, accumulator);
+    return score(accumulator, player);
+  }
+
+  @Override
+  public Evaluator attach(Reversi board) {
+    if (board.getGeometry() != geometry) {
+      return fallback instanceof IncrementalEvaluator
+              ? ((IncrementalEvaluator) fallback).attach(board) : fallback;
+    }
+    Tracker tracker = new Tracker(board);
+    board.setDiscListener(tracker);
+    return tracker;
+  }
+
+  /**
+   * Retrieves the geometry of the board the network was trained for.
+   *
+   * @return The geometry of the network's board.
+   */
+  public Geometry getGeometry() {
+    return geometry;
+  }
+
+  /**
+   * Retrieves the number of values in the network's hidden layer.
+   *
+   * @return The size of the hidden layer.
+   */
+  public int getHiddenSize() {
+    return hidden;
+  }
+
+  private void accumulate(ReversiReadOnly model, int[] accumulator) {
+    for (int h = 0; h < hidden; h++) {
+      accumulator[h] = hiddenBiases[h];
+    }
+    for (int cell = 0; cell < geometry.getCellCount(); cell++) {
+      Disc disc = model.getDiscAt(geometry.getFirstCoordinate(cell),
+              geometry.getSecondCoordinate(cell));
+      if (disc != Disc.EMPTY) {
+        add(accumulator, input(cell, disc), 1);
+      }
+    }
+  }
+
+  /**
+   * The offset of the row of hidden weights of a cell's input for one color.
+   */
+  private int input(int cell, Disc disc) {
+    return (2 * cell + (disc == Disc.WHITE ? 1 : 0)) * hidden;
+  }
+
+  private void add(int[] accumulator, int row, int sign) {
+    for (int h = 0; h < hidden; h++) {
+      accumulator[h] += sign * inputWeights[row + h];
+    }
+  }
+
+  private int score(int[] accumulator, Disc player) {
+    long sum = outputBias;
+    for (int h = 0; h < hidden; h++) {
+      int value = Math.max(0, Math.min(HIDDEN_ONE, accumulator[h]));
+      sum += value * outputWeights[h];
+    }
+    int score = (int) (sum * SCORE_SCALE / (HIDDEN_ONE * OUTPUT_ONE));
+    return player == Disc.BLACK ? score : -score;
+  }
+
+  /**
+   * Writes a network file.
+   *
+   * @param file          The file to write, replaced if it exists.
+   * @param geometry      The geometry of the board the network was trained for.
+   * @param hidden        The number of hidden values.
+   * @param inputWeights  The input weights, laid out as in the file.
+   * @param hiddenBiases  The biases of the hidden values.
+   * @param outputWeights The output weights.
+   * @param outputBias    The output bias, scaled by both the hidden and output scales.
+   * @throws IOException If the file can't be written.
+   */
+  static void write(Path file, Geometry geometry, int hidden, short[] inputWeights,
+                    short[] hiddenBiases, short[] outputWeights, int outputBias)
+          throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES
+            + 2 * (inputWeights.length + hiddenBiases.length + outputWeights.length) + 4);
+    buffer.putInt(MAGIC).putInt(geometry.isHex() ? 1 : 0).putInt(geometry.getSize())
+        .putInt(hidden);
+    for (short weight : inputWeights) {
+      buffer.putShort(weight);
+    }
+    for (short bias : hiddenBiases) {
+      buffer.putShort(bias);
+    }
+    for (short weight : outputWeights) {
+      buffer.putShort(weight);
+    }
+    buffer.putInt(outputBias);
+    Files.write(file, buffer.array());
+  }
+
+  /**
+   * The evaluator attached to a search's board, which keeps the board's accumulator as its discs
+   * change and scores any other game from scratch.
+   */
+  private final class Tracker implements Evaluator, DiscListener {
+    private final Reversi board;
+    private final int[] accumulator = new int[hidden];
+
+    private Tracker(Reversi board) {
+      this.board = board;
+      accumulate(board, accumulator);
+    }
+
+    @Override
+    public int evaluate(ReversiReadOnly model, Disc player) {
+      if (model != board) {
+        return NnueEvaluator.this.evaluate(model, player);
+      }
+      return score(accumulator, player);
+    }
+
+    @Override
+    public void discChanged(int index, Disc previous, Disc disc) {
+      if (previous != Disc.EMPTY) {
+        add(accumulator, input(index, previous), -1);
+      }
+      if (disc != Disc.EMPTY) {
+        add(accumulator, input(index, disc), 1);
+      }
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package controller.aistrat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import model.Disc;
+import model.Geometry;
+import model.Position;
+import model.ReversiReadOnly;
+
+/**
+ * A strategy that answers the first moves of a game straight from a book of positions searched
+ * ahead of time, and leaves every position the book doesn't hold to another strategy. The book
+ * is a file of fixed-size records sorted by position hash, written by
+ * {@link OpeningBookBuilder}. It is memory mapped rather than read in, so opening a book costs
+ * the same whatever its size, nothing of it is kept on the heap, and a lookup is a binary search
+ * touching only a handful of records. A book holds the positions of one board shape and size;
+ * on any other board it simply defers to the fallback.
+ *
+ * <p>The file starts with a 16 byte header: a marker, 1 for a hexagonal board or 0 for a square
+ * one, the board size and the number of records. Each 16 byte record that follows holds a
+ * position hash, the geometry index of the move to play and the score the search gave it.
+ */
+public class OpeningBook implements ReversiStratagy {
+  static final int MAGIC = 0x52424F4B;
+  static final int HEADER_BYTES = 16;
+  static final int RECORD_BYTES = 16;
+
+  private final MappedByteBuffer records;
+  private final boolean hex;
+  private final int size;
+  private final int count;
+  private final ReversiStratagy fallback;
+
+  /**
+   * Opens a book file.
+   *
+   * @param file     The book file written by an {@link OpeningBookBuilder}.
+   * @param fallback The strategy choosing moves the book doesn't hold.
+   * @throws IOException              If the file can't be read or is not a book.
+   * @throws IllegalArgumentException If the file or fallback is null.
+   */
+  public OpeningBook(Path file, ReversiStratagy fallback) throws IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("Book file can't be null");
+    }
+    if (fallback == null) {
+      throw new IllegalArgumentException("Fallback strategy can't be null");
+    }
+    // the mapping stays valid after the channel it was made from is closed
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      this.records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (records.capacity() < HEADER_BYTES || records.getInt(0) != MAGIC) {
+      throw new IOException("Not an opening book: " + file);
+    }
+    this.hex = records.getInt(4) == 1;
+    this.size = records.getInt(8);
+    this.count = records.getInt(12);
+    if (count < 0 || records.capacity() != HEADER_BYTES + (long) count * RECORD_BYTES) {
+      throw new IOException("Opening book is truncated: " + file);
+    }
+    this.fallback = fallback;
+  }
+
+  /**
+   * Plays the book move of the model's position if the book holds it, and otherwise asks the
+   * fallback strategy.
+   *
+   * @param model The Reversi game model representing the current state of the game.
+   * @param turn  The disc color of the current player.
+   * @return The chosen move, or the pass coordinate if the player has no move.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn) {
+    Position move = lookup(model);
+    if (move == null) {
+      return fallback.chooseMove(model, turn);
+    }
+    return move;
+  }
+
+  /**
+   * Looks up the model's position in the book. The move found is checked to be legal, so a hash
+   * shared by some other position is never played.
+   *
+   * @param model The game to look up.
+   * @return The book move of the position, or null if the book doesn't hold it.
+   */
+  public Position lookup(ReversiReadOnly model) {
+    Geometry geometry = model.getGeometry();
+    if (geometry.isHex() != hex || geometry.getSize() != size) {
+      return null;
+    }
+    int record = find(model.getPositionHash());
+    if (record < 0) {
+      return null;
+    }
+    int move = records.getInt(offset(record) + 8);
+    int[] moves = new int[geometry.getCellCount()];
+    int moveCount = model.listMoves(model.currentColor(), moves);
+    for (int i = 0; i < moveCount; i++) {
+      if (moves[i] == move) {
+        return geometry.getPosition(move);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Retrieves the score the book's search gave the move of a position, from the point of view
+   * of the player to move.
+   *
+   * @param positionHash The hash of the position.
+   * @return The score of the book move.
+   * @throws IllegalArgumentException If the book doesn't hold the position.
+   */
+  public int getScore(long positionHash) {
+    int record = find(positionHash);
+    if (record < 0) {
+      throw new IllegalArgumentException("Position is not in the book");
+    }
+    return records.getInt(offset(record) + 12);
+  }
+
+  /**
+   * Retrieves the number of positions in the book.
+   *
+   * @return The number of positions.
+   */
+  public int getPositionCount() {
+    return count;
+  }
+
+  private int find(long positionHash) {
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long hash = records.getLong(offset(middle));
+      if (hash < positionHash) {
+        low = middle + 1;
+      } else if (hash > positionHash) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  private static int offset(int record) {
+    return HEADER_BYTES + record * RECORD_BYTES;
+  }
+
+  /**
+   * Writes a book file. The records must already be sorted by hash, with no hash twice.
+   *
+   * @param file     The file to write, replaced if it exists.
+   * @param geometry The geometry of the board the positions are on.
+   * @param hashes   The position hashes, in increasing order.
+   * @param moves    The geometry index of the move to play in each position.
+   * @param scores   The score of each move.
+   * @param count    The number of records.
+   * @throws IOException If the file can't be written.
+   */
+  static void write(Path file, Geometry geometry, long[] hashes, int[] moves, int[] scores,
+                    int count) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+      buffer.putInt(MAGIC).putInt(geometry.isHex() ? 1 : 0).putInt(geometry.getSize())
+          .putInt(count);
+      for (int i = 0; i < count; i++) {
+        if (buffer.remaining() < RECORD_BYTES) {
+          drain(channel, buffer);
+        }
+        buffer.putLong(hashes[i]).putInt(moves[i]).putInt(scores[i]);
+      }
+      drain(channel, buffer);
+    }
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
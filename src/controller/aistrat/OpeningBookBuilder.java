@@ -0,0 +1,121 @@
+package controller.aistrat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import model.BitSquareBoard;
+import model.FlatHexBoard;
+import model.Position;
+import model.Reversi;
+import model.ReversiReadOnly;
+
+/**
+ * Writes the book files read by {@link OpeningBook}. Starting from a position, usually the start
+ * of a game, it plays every line of moves a set number of moves deep and searches each position
+ * it reaches with a deep alpha-beta search, recording the move the search chose and its score.
+ * Positions reached through more than one order of moves are searched once. Building a book
+ * takes as long as all of those searches together, but it is done once and every game after
+ * then gets its opening moves for free.
+ */
+public class OpeningBookBuilder {
+  private final int plies;
+  private final AlphaBeta search;
+  private final HashMap<Long, Long> entries = new HashMap<Long, Long>();
+  // the most moves left that each position has been expanded with
+  private final HashMap<Long, Integer> expanded = new HashMap<Long, Integer>();
+
+  /**
+   * Creates a book builder.
+   *
+   * @param plies The number of moves from the start position to cover, at least 0.
+   * @param depth The depth of the search run on each position, at least 1.
+   * @throws IllegalArgumentException If the plies are negative or the depth is less than 1.
+   */
+  public OpeningBookBuilder(int plies, int depth) {
+    if (plies < 0) {
+      throw new IllegalArgumentException("Plies can't be negative");
+    }
+    this.plies = plies;
+    this.search = new AlphaBeta(depth, new DiscCountEvaluator(), new TranspositionTable(64));
+  }
+
+  /**
+   * Searches every position within the builder's number of moves of the start position and
+   * writes them to a book file. The start position itself is never changed.
+   *
+   * @param start The position the book starts from.
+   * @param file  The book file to write, replaced if it exists.
+   * @return The number of positions written.
+   * @throws IOException If the file can't be written.
+   */
+  public int build(ReversiReadOnly start, Path file) throws IOException {
+    entries.clear();
+    expanded.clear();
+    expand(SearchBoards.copyOf(start), plies);
+    long[] hashes = new long[entries.size()];
+    int count = 0;
+    for (long hash : entries.keySet()) {
+      hashes[count++] = hash;
+    }
+    Arrays.sort(hashes);
+    int[] moves = new int[count];
+    int[] scores = new int[count];
+    for (int i = 0; i < count; i++) {
+      long entry = entries.get(hashes[i]);
+      moves[i] = (int) (entry >>> 32);
+      scores[i] = (int) entry;
+    }
+    OpeningBook.write(file, start.getGeometry(), hashes, moves, scores, count);
+    return count;
+  }
+
+  private void expand(Reversi board, int movesLeft) {
+    long hash = board.getPositionHash();
+    Integer done = expanded.get(hash);
+    if (board.isGameOver() || (done != null && done >= movesLeft)) {
+      return;
+    }
+    expanded.put(hash, movesLeft);
+    if (board.getPossibleMoves().isEmpty()) {
+      board.passTurn();
+      expand(board, movesLeft);
+      board.undoMove();
+      return;
+    }
+    if (!entries.containsKey(hash)) {
+      SearchResult result = search.search(board);
+      int move = board.getGeometry().index(result.getMove().getFirstCoordinate(),
+              result.getMove().getSecondCoordinate());
+      entries.put(hash, (long) move << 32 | (result.getScore() & 0xFFFFFFFFL));
+    }
+    if (movesLeft == 0) {
+      return;
+    }
+    for (Position next : board.getPossibleMoves()) {
+      board.makeMove(next);
+      expand(board, movesLeft - 1);
+      board.undoMove();
+    }
+  }
+
+  /**
+   * Builds a book from the start of a game. The arguments are the book file, the board size,
+   * optionally "s" for a square board, the number of moves to cover and the search depth, for
+   * example {@code opening.book 8 s 6 8}.
+   *
+   * @param args The command line arguments.
+   * @throws IOException If the book can't be written.
+   */
+  public static void main(String[] args) throws IOException {
+    int size = Integer.parseInt(args[1]);
+    boolean square = args[2].equals("s");
+    int next = square ? 3 : 2;
+    Reversi start = square ? new BitSquareBoard(size) : new FlatHexBoard(size);
+    OpeningBookBuilder builder = new OpeningBookBuilder(Integer.parseInt(args[next]),
+            Integer.parseInt(args[next + 1]));
+    System.out.println(builder.build(start, Paths.get(args[0])) + " positions written");
+  }
+}
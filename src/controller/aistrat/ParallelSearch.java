@@ -0,0 +1,241 @@
+package controller.aistrat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import model.BoardSnapshot;
+import model.Disc;
+import model.Position;
+import model.ReversiReadOnly;
+
+/**
+ * A time-budgeted lookahead strategy that searches on several threads at once. Every thread
+ * runs its own iterative deepening search on its own copy of the game, and all of them share
+ * one transposition table, so a position scored by one thread is skipped by the others and the
+ * best moves they remember order each other's searches. Half of the threads start one move
+ * deeper than the rest, which keeps them from walking the same tree in step. The move played is
+ * the one found by the deepest search any thread finished in time, and as soon as one thread
+ * finishes the deepest search allowed, or proves the game won or lost, the others are stopped.
+ *
+ * <p>The threads come from a ForkJoinPool owned by the strategy. Its threads are daemons and
+ * stay idle between moves, so the strategy can be kept for a whole game without being shut down.
+ */
+public class ParallelSearch implements ReversiStratagy {
+  private final ForkJoinPool pool;
+  private final int threads;
+  private final long budgetMillis;
+  private final int maxDepth;
+  private final Evaluator evaluator;
+  private final TranspositionTable table;
+  private volatile int lastDepth;
+  private volatile long lastNodes;
+
+  // the deepest finished result of the search in progress, guarded by resultLock; the strategy's
+  // own lock is held by the calling thread for the whole search
+  private final Object resultLock = new Object();
+  private SearchResult best;
+
+  /**
+   * Creates a parallel search strategy.
+   *
+   * @param threads      The number of threads to search with.
+   * @param budgetMillis The time allowed for each move, in milliseconds.
+   * @param maxDepth     The deepest search to run, however much time is left.
+   * @param evaluator    The evaluation used to score the positions at the end of the search.
+   * @param table        The transposition table shared by the threads.
+   * @throws IllegalArgumentException If the thread count, budget or depth is not positive, or
+   *                                  the evaluator or table is null.
+   */
+  public ParallelSearch(int threads, long budgetMillis, int maxDepth, Evaluator evaluator,
+                        TranspositionTable table) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    if (budgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget must be positive");
+    }
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("Depth must be at least 1");
+    }
+    if (evaluator == null || table == null) {
+      throw new IllegalArgumentException("Evaluator and table can't be null");
+    }
+    this.pool = new ForkJoinPool(threads);
+    this.threads = threads;
+    this.budgetMillis = budgetMillis;
+    this.maxDepth = maxDepth;
+    this.evaluator = evaluator;
+    this.table = table;
+  }
+
+  /**
+   * Creates a parallel search strategy that searches as deep as the budget allows, scores
+   * positions by their disc count and shares a 64 megabyte transposition table.
+   *
+   * @param threads      The number of threads to search with.
+   * @param budgetMillis The time allowed for each move, in milliseconds.
+   * @throws IllegalArgumentException If the thread count or budget is not positive.
+   */
+  public ParallelSearch(int threads, long budgetMillis) {
+    this(threads, budgetMillis, 64, new DiscCountEvaluator(), new TranspositionTable(64));
+  }
+
+  /**
+   * Chooses the move found by the deepest search any thread finished within the budget.
+   *
+   * @param model The Reversi game model representing the current state of the game.
+   * @param turn  The disc color of the current player.
+   * @return The chosen move, or the pass coordinate if the player has no move.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn) {
+    return search(model).getMove();
+  }
+
+  /**
+   * Searches the model's position on every thread until the budget runs out, and reports the
+   * result of the deepest search finished. The node count is the total over all threads. The
+   * model itself is never changed, and only read on the calling thread. If the calling thread is
+   * interrupted, the threads are stopped and the search returns once all of them have.
+   *
+   * @param model The game to search.
+   * @return The result of the deepest finished search.
+   */
+  public synchronized SearchResult search(ReversiReadOnly model) {
+    long start = System.nanoTime();
+    long budget = budgetMillis * 1000000L;
+    table.newSearch();
+    BoardSnapshot snapshot = model.snapshot();
+
+    NegamaxSearch first = new NegamaxSearch(SearchBoards.fromSnapshot(snapshot), evaluator, table);
+    SearchResult shallow = first.searchRoot(1);
+    synchronized (resultLock) {
+      best = shallow;
+    }
+    long nodes = first.getNodes();
+    if (first.getRootMoveCount() > 1 && !isDecided(shallow) && maxDepth > 1) {
+      List<NegamaxSearch> searches = new ArrayList<NegamaxSearch>();
+      for (int i = 0; i < threads; i++) {
+        NegamaxSearch search =
+                new NegamaxSearch(SearchBoards.fromSnapshot(snapshot), evaluator, table);
+        search.setDeadline(start + budget);
+        searches.add(search);
+      }
+      List<Future<?>> running = new ArrayList<Future<?>>();
+      for (int i = 0; i < threads; i++) {
+        NegamaxSearch search = searches.get(i);
+        int startDepth = 2 + (i & 1);
+        running.add(pool.submit(() -> deepen(search, startDepth, shallow.getScore(), start,
+                budget, searches)));
+      }
+      // every thread is waited for, even once stopped, so none can offer a result after the
+      // next search has started
+      boolean interrupted = false;
+      Throwable failure = null;
+      for (Future<?> task : running) {
+        while (true) {
+          try {
+            task.get();
+            break;
+          } catch (InterruptedException e) {
+            interrupted = true;
+            stopAll(searches);
+          } catch (ExecutionException e) {
+            failure = e.getCause();
+            stopAll(searches);
+            break;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure != null) {
+        throw new IllegalStateException("A search thread failed", failure);
+      }
+      for (NegamaxSearch search : searches) {
+        nodes += search.getNodes();
+      }
+    }
+    SearchResult deepest;
+    synchronized (resultLock) {
+      deepest = best;
+    }
+    lastDepth = deepest.getDepth();
+    lastNodes = nodes;
+    return new SearchResult(deepest.getMove(), deepest.getScore(), deepest.getDepth(), nodes,
+            deepest.getPrincipalVariation());
+  }
+
+  /**
+   * Runs one thread's iterative deepening, handing each finished depth to the shared result.
+   * Each depth is searched in an aspiration window around the score the thread found two moves
+   * shallower, or that of the one move deep search until it has one.
+   */
+  private void deepen(NegamaxSearch search, int startDepth, int guess, long start, long budget,
+                      List<NegamaxSearch> searches) {
+    int twoBack = guess;
+    int oneBack = guess;
+    for (int depth = startDepth; depth <= maxDepth; depth++) {
+      if (System.nanoTime() - start > budget / 2) {
+        return;
+      }
+      SearchResult result = search.searchAround(depth, twoBack);
+      if (search.isStopped()) {
+        return;
+      }
+      twoBack = oneBack;
+      oneBack = result.getScore();
+      boolean done = offer(result) || depth == maxDepth;
+      if (done) {
+        stopAll(searches);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Keeps a finished result if it is deeper than any so far.
+   *
+   * @return True if the result proves the game won or lost, so nothing deeper is needed.
+   */
+  private boolean offer(SearchResult result) {
+    synchronized (resultLock) {
+      if (result.getDepth() > best.getDepth()) {
+        best = result;
+      }
+    }
+    return isDecided(result);
+  }
+
+  private static void stopAll(List<NegamaxSearch> searches) {
+    for (NegamaxSearch search : searches) {
+      search.stop();
+    }
+  }
+
+  private static boolean isDecided(SearchResult result) {
+    return Math.abs(result.getScore()) > AlphaBeta.WIN_SCORE / 2;
+  }
+
+  /**
+   * Retrieves the depth of the deepest search finished for the most recent move.
+   *
+   * @return The depth reached, or 0 if no move has been chosen yet.
+   */
+  public int getLastDepth() {
+    return lastDepth;
+  }
+
+  /**
+   * Retrieves the number of positions all the threads visited for the most recent move.
+   *
+   * @return The total number of nodes searched.
+   */
+  public long getLastNodes() {
+    return lastNodes;
+  }
+}
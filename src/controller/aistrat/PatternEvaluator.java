@@ -0,0 +1,235 @@
+package controller.aistrat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.Disc;
+import model.DiscListener;
+import model.Geometry;
+import model.Reversi;
+import model.ReversiReadOnly;
+
+/**
+ * Scores a position by looking up each of a {@link PatternSet}'s patterns in a table of weights
+ * and adding the scores up. Patterns see what a disc count can't, such as who holds the corners
+ * and edges and who has given a corner away by playing next to it, which is most of what decides
+ * a game before its last moves.
+ *
+ * <p>Each evaluator keeps its own weights for every board geometry it meets, which start out as
+ * hand-picked values until tuned ones are set or read from a weights file written by
+ * {@link EvaluationTuner}. They score positions for black; a table scores each code with the two
+ * colors swapped as the negation of the code itself, so the score for white is simply the negation
+ * of the score for black.
+ *
+ * <p>Worked out from the whole board, a score reads every cell. A search instead attaches the
+ * evaluator to its board, and the attached evaluator keeps the code of every pattern up to date
+ * as discs change, so scoring a position is one table lookup per pattern.
+ */
+public class PatternEvaluator implements IncrementalEvaluator {
+  static final int MAGIC = 0x52575453;
+
+  private final ConcurrentHashMap<Geometry, int[][]> weights =
+          new ConcurrentHashMap<Geometry, int[][]>();
+  private final Path directory;
+
+  /**
+   * Creates a pattern evaluator using the hand-picked weights on every board.
+   */
+  public PatternEvaluator() {
+    this.directory = null;
+  }
+
+  /**
+   * Creates a pattern evaluator reading its weights from a directory of weight files. The file
+   * for a geometry, named by {@link #weightsFileName}, is read the first time a board of that
+   * geometry is scored; boards without one use the hand-picked weights. A file that is there but
+   * can't be read makes scoring throw an IllegalStateException.
+   *
+   * @param directory The directory holding the weight files.
+   * @throws IllegalArgumentException If the directory is null.
+   */
+  public PatternEvaluator(Path directory) {
+    if (directory == null) {
+      throw new IllegalArgumentException("Directory can't be null");
+    }
+    this.directory = directory;
+  }
+
+  @Override
+  public int evaluate(ReversiReadOnly model, Disc player) {
+    PatternSet patterns = PatternSet.of(model.getGeometry());
+    int[] codes = new int[patterns.getPatternCount()];
+    patterns.codes(model, codes);
+    return score(patterns, tables(model.getGeometry()), codes, player);
+  }
+
+  @Override
+  public Evaluator attach(Reversi board) {
+    Tracker tracker = new Tracker(board);
+    board.setDiscListener(tracker);
+    return tracker;
+  }
+
+  /**
+   * Retrieves a copy of the weights used on boards of a geometry, one table per pattern family
+   * indexed by pattern code.
+   *
+   * @param geometry The geometry of the board.
+   * @return The tables of weights, scoring positions for black.
+   */
+  public int[][] getWeights(Geometry geometry) {
+    int[][] tables = tables(geometry);
+    int[][] copy = new int[tables.length][];
+    for (int f = 0; f < tables.length; f++) {
+      copy[f] = tables[f].clone();
+    }
+    return copy;
+  }
+
+  /**
+   * Replaces the weights used on boards of a geometry. Each table must hold one weight per code
+   * of its family, the same shape {@link #getWeights} returns, and should score a code with the
+   * colors swapped as the negation of the code itself.
+   *
+   * @param geometry The geometry of the board.
+   * @param tables   The tables of weights, scoring positions for black. They are copied.
+   * @throws IllegalArgumentException If the geometry or tables are null or the wrong shape.
+   */
+  public void setWeights(Geometry geometry, int[][] tables) {
+    if (geometry == null || tables == null) {
+      throw new IllegalArgumentException("Geometry and weights can't be null");
+    }
+    PatternSet patterns = PatternSet.of(geometry);
+    if (tables.length != PatternSet.FAMILY_COUNT) {
+      throw new IllegalArgumentException("Expected " + PatternSet.FAMILY_COUNT + " weight tables");
+    }
+    int[][] copy = new int[tables.length][];
+    for (int f = 0; f < tables.length; f++) {
+      if (tables[f] == null || tables[f].length != patterns.tableSize(f)) {
+        throw new IllegalArgumentException("Weight table " + f + " must hold "
+                + patterns.tableSize(f) + " weights");
+      }
+      copy[f] = tables[f].clone();
+    }
+    weights.put(geometry, copy);
+  }
+
+  /**
+   * Writes the weights used on boards of a geometry to a weights file, which a pattern evaluator
+   * reading from the file's directory picks up for that geometry. The file holds a 16 byte header,
+   * a marker, 1 for a hexagonal board or 0 for a square one, the board size and the number of
+   * tables, then each table as its length followed by its weights.
+   *
+   * @param geometry The geometry of the board.
+   * @param file     The file to write, replaced if it exists.
+   * @throws IOException If the file can't be written.
+   */
+  public void saveWeights(Geometry geometry, Path file) throws IOException {
+    int[][] tables = tables(geometry);
+    int length = 16;
+    for (int[] table : tables) {
+      length += 4 + 4 * table.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    buffer.putInt(MAGIC).putInt(geometry.isHex() ? 1 : 0).putInt(geometry.getSize())
+        .putInt(tables.length);
+    for (int[] table : tables) {
+      buffer.putInt(table.length);
+      for (int weight : table) {
+        buffer.putInt(weight);
+      }
+    }
+    Files.write(file, buffer.array());
+  }
+
+  /**
+   * Names the weights file of a geometry, such as "hex7.weights" or "square8.weights".
+   *
+   * @param geometry The geometry of the board.
+   * @return The name of the file.
+   */
+  public static String weightsFileName(Geometry geometry) {
+    return (geometry.isHex() ? "hex" : "square") + geometry.getSize() + ".weights";
+  }
+
+  private int[][] tables(Geometry geometry) {
+    return weights.computeIfAbsent(geometry, this::loadWeights);
+  }
+
+  private int[][] loadWeights(Geometry geometry) {
+    PatternSet patterns = PatternSet.of(geometry);
+    if (directory == null) {
+      return patterns.defaultWeights();
+    }
+    Path file = directory.resolve(weightsFileName(geometry));
+    if (!Files.exists(file)) {
+      return patterns.defaultWeights();
+    }
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+      if (buffer.remaining() < 16 || buffer.getInt() != MAGIC
+              || buffer.getInt() != (geometry.isHex() ? 1 : 0)
+              || buffer.getInt() != geometry.getSize()
+              || buffer.getInt() != PatternSet.FAMILY_COUNT) {
+        throw new IOException("Not a weights file for this board: " + file);
+      }
+      int[][] tables = new int[PatternSet.FAMILY_COUNT][];
+      for (int f = 0; f < tables.length; f++) {
+        if (buffer.remaining() < 4 || buffer.getInt() != patterns.tableSize(f)
+                || buffer.remaining() < 4 * patterns.tableSize(f)) {
+          throw new IOException("Weights file is truncated: " + file);
+        }
+        tables[f] = new int[patterns.tableSize(f)];
+        buffer.asIntBuffer().get(tables[f]);
+        buffer.position(buffer.position() + 4 * tables[f].length);
+      }
+      return tables;
+    } catch (IOException e) {
+      throw new IllegalStateException("Can't read weights file " + file, e);
+    }
+  }
+
+  private static int score(PatternSet patterns, int[][] tables, int[] codes, Disc player) {
+    int score = 0;
+    for (int p = 0; p < codes.length; p++) {
+      score += tables[patterns.getFamily(p)][codes[p]];
+    }
+    return player == Disc.BLACK ? score : -score;
+  }
+
+  /**
+   * The evaluator attached to a search's board, which keeps the board's pattern codes as its
+   * discs change and scores any other game from scratch. It keeps the weights in use when it
+   * was attached, so weights set during a search are used from the next search on.
+   */
+  private final class Tracker implements Evaluator, DiscListener {
+    private final Reversi board;
+    private final PatternSet patterns;
+    private final int[][] tables;
+    private final int[] codes;
+
+    private Tracker(Reversi board) {
+      this.board = board;
+      this.patterns = PatternSet.of(board.getGeometry());
+      this.tables = tables(board.getGeometry());
+      this.codes = new int[patterns.getPatternCount()];
+      patterns.codes(board, codes);
+    }
+
+    @Override
+    public int evaluate(ReversiReadOnly model, Disc player) {
+      if (model != board) {
+        return PatternEvaluator.this.evaluate(model, player);
+      }
+      return score(patterns, tables, codes, player);
+    }
+
+    @Override
+    public void discChanged(int index, Disc previous, Disc disc) {
+      patterns.update(codes, index, PatternSet.digit(disc) - PatternSet.digit(previous));
+    }
+  }
+}
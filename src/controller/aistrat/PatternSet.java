@@ -0,0 +1,443 @@
+package controller.aistrat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.Disc;
+import model.Geometry;
+import model.ReversiReadOnly;
+
+/**
+ * The patterns a {@link PatternEvaluator} scores a board by: short lines and small regions of
+ * cells around each corner of the board, each read as one base-3 number with a digit for every
+ * cell in it (0 empty, 1 black, 2 white). There are four families of pattern, each laid out once
+ * around one corner and copied onto every corner by the symmetries of the board, so that all of
+ * a family's copies look up their scores in the same table:
+ * <ul>
+ *   <li>the edge, running along the board's edge from the corner;</li>
+ *   <li>the second edge, the line of cells just inside the edge;</li>
+ *   <li>the corner region, the three by three square in the corner of a square board, or the
+ *   cells within two steps of the corner of a hexagonal one;</li>
+ *   <li>the diagonal, running from the corner towards the center.</li>
+ * </ul>
+ * Lines stop after eight cells on large boards, so no table holds more than 3^9 scores.
+ * The cells of each copy are listed per cell as well, so a disc changing on a cell updates the
+ * codes of exactly the patterns it is in. Pattern sets are built once per geometry and shared.
+ */
+final class PatternSet {
+  static final int EDGE = 0;
+  static final int SECOND_EDGE = 1;
+  static final int CORNER = 2;
+  static final int DIAGONAL = 3;
+  static final int FAMILY_COUNT = 4;
+
+  private static final int MAX_LINE = 8;
+  private static final ConcurrentHashMap<Geometry, PatternSet> SETS =
+          new ConcurrentHashMap<Geometry, PatternSet>();
+
+  // what a cell of a pattern is, relative to the corners of the board
+  private static final int INNER_CELL = 0;
+  private static final int EDGE_CELL = 1;
+  private static final int NEXT_TO_CORNER = 2;
+  private static final int DIAGONAL_TO_CORNER = 3;
+  private static final int CORNER_CELL = 4;
+
+  private final Geometry geometry;
+  private final int[][] kinds = new int[FAMILY_COUNT][];
+  // for each cell of a family next to a corner, the position of that corner in the family, or -1
+  private final int[][] corners = new int[FAMILY_COUNT][];
+  private final int[] family;
+  private final int[][] cells;
+  private final int[][] cellPatterns;
+  private final int[][] cellPowers;
+
+  private PatternSet(Geometry geometry) {
+    this.geometry = geometry;
+    List<int[]> found = new ArrayList<int[]>();
+    List<Integer> families = new ArrayList<Integer>();
+    for (int f = 0; f < FAMILY_COUNT; f++) {
+      int[][] layout = geometry.isHex() ? hexLayout(f) : squareLayout(f);
+      int[] laid = new int[layout.length];
+      for (int i = 0; i < layout.length; i++) {
+        laid[i] = geometry.isHex() ? hexCell(layout[i], 0) : squareCell(layout[i], 0);
+      }
+      classify(f, laid);
+      // copies covering the same cells read them in a different order but score the same
+      Set<List<Integer>> covered = new HashSet<List<Integer>>();
+      for (int symmetry = 0; symmetry < (geometry.isHex() ? 12 : 8); symmetry++) {
+        int[] copy = new int[layout.length];
+        boolean onBoard = true;
+        for (int i = 0; i < layout.length && onBoard; i++) {
+          copy[i] = geometry.isHex() ? hexCell(layout[i], symmetry)
+                  : squareCell(layout[i], symmetry);
+          onBoard = copy[i] >= 0;
+        }
+        if (!onBoard || layout.length == 0) {
+          continue;
+        }
+        int[] sorted = copy.clone();
+        Arrays.sort(sorted);
+        List<Integer> key = new ArrayList<Integer>();
+        for (int cell : sorted) {
+          key.add(cell);
+        }
+        if (covered.add(key)) {
+          found.add(copy);
+          families.add(f);
+        }
+      }
+    }
+    this.cells = found.toArray(new int[0][]);
+    this.family = new int[cells.length];
+    int[] counts = new int[geometry.getCellCount()];
+    for (int p = 0; p < cells.length; p++) {
+      family[p] = families.get(p);
+      for (int cell : cells[p]) {
+        counts[cell]++;
+      }
+    }
+    this.cellPatterns = new int[counts.length][];
+    this.cellPowers = new int[counts.length][];
+    for (int cell = 0; cell < counts.length; cell++) {
+      cellPatterns[cell] = new int[counts[cell]];
+      cellPowers[cell] = new int[counts[cell]];
+      counts[cell] = 0;
+    }
+    for (int p = 0; p < cells.length; p++) {
+      int power = 1;
+      for (int cell : cells[p]) {
+        cellPatterns[cell][counts[cell]] = p;
+        cellPowers[cell][counts[cell]] = power;
+        counts[cell]++;
+        power *= 3;
+      }
+    }
+  }
+
+  /**
+   * Returns the shared pattern set of a geometry, building it the first time it is asked for.
+   *
+   * @param geometry The geometry of the board.
+   * @return The patterns of that board.
+   */
+  static PatternSet of(Geometry geometry) {
+    return SETS.computeIfAbsent(geometry, PatternSet::new);
+  }
+
+  /**
+   * The layout of a family around the corner at x = 0, y = 0 of a square board.
+   */
+  private int[][] squareLayout(int f) {
+    int size = geometry.getSize();
+    int line = Math.min(size, MAX_LINE);
+    List<int[]> layout = new ArrayList<int[]>();
+    if (f == CORNER) {
+      for (int y = 0; y < Math.min(size, 3); y++) {
+        for (int x = 0; x < Math.min(size, 3); x++) {
+          layout.add(new int[] {x, y});
+        }
+      }
+    } else {
+      for (int i = 0; i < line; i++) {
+        if (f == EDGE) {
+          layout.add(new int[] {i, 0});
+        } else if (f == SECOND_EDGE) {
+          layout.add(new int[] {i, 1});
+        } else {
+          layout.add(new int[] {i, i});
+        }
+      }
+    }
+    return layout.toArray(new int[0][]);
+  }
+
+  /**
+   * The layout of a family around the corner at q = size - 1, r = 1 - size of a hexagonal
+   * board, whose edges run along q = size - 1 and r = 1 - size.
+   */
+  private int[][] hexLayout(int f) {
+    int radius = geometry.getSize() - 1;
+    int line = Math.min(geometry.getSize(), MAX_LINE);
+    List<int[]> layout = new ArrayList<int[]>();
+    if (f == CORNER) {
+      for (int distance = 0; distance <= 2; distance++) {
+        for (int dq = -distance; dq <= distance; dq++) {
+          for (int dr = -distance; dr <= distance; dr++) {
+            int q = radius + dq;
+            int r = -radius + dr;
+            if (cubeDistance(dq, dr) == distance && geometry.index(q, r) >= 0) {
+              layout.add(new int[] {q, r});
+            }
+          }
+        }
+      }
+    } else {
+      for (int i = 0; i < line; i++) {
+        if (f == EDGE) {
+          layout.add(new int[] {radius, -radius + i});
+        } else if (f == SECOND_EDGE) {
+          layout.add(new int[] {radius - 1, -radius + 1 + i});
+        } else {
+          layout.add(new int[] {radius - i, -radius + i});
+        }
+      }
+    }
+    return layout.toArray(new int[0][]);
+  }
+
+  /**
+   * Works out what each cell of a layout is from the board itself, so that a line running from
+   * one corner to the next knows about both, and which cell of the layout is the corner each
+   * cell next to a corner sits by.
+   */
+  private void classify(int f, int[] layout) {
+    kinds[f] = new int[layout.length];
+    corners[f] = new int[layout.length];
+    for (int i = 0; i < layout.length; i++) {
+      int cell = layout[i];
+      kinds[f][i] = INNER_CELL;
+      corners[f][i] = -1;
+      if (geometry.isCorner(cell)) {
+        kinds[f][i] = CORNER_CELL;
+        continue;
+      }
+      for (int dir = 0; dir < geometry.getDirectionCount(); dir++) {
+        int next = geometry.neighbor(cell, dir);
+        if (next < 0) {
+          kinds[f][i] = Math.max(kinds[f][i], EDGE_CELL);
+        } else if (geometry.isCorner(next)) {
+          // on a square board the cell diagonal to the corner is the only one not on its edges
+          boolean diagonal = !geometry.isHex()
+                  && geometry.getFirstCoordinate(cell) != geometry.getFirstCoordinate(next)
+                  && geometry.getSecondCoordinate(cell) != geometry.getSecondCoordinate(next);
+          kinds[f][i] = diagonal ? DIAGONAL_TO_CORNER : NEXT_TO_CORNER;
+          for (int j = 0; j < layout.length; j++) {
+            if (layout[j] == next) {
+              corners[f][i] = j;
+            }
+          }
+          break;
+        }
+      }
+    }
+  }
+
+  private static int cubeDistance(int dq, int dr) {
+    return Math.max(Math.abs(dq), Math.max(Math.abs(dr), Math.abs(dq + dr)));
+  }
+
+  /**
+   * Maps a cell of a square layout through one of the eight symmetries of the square.
+   *
+   * @return The geometry index of the cell it lands on, or -1 if it is off the board.
+   */
+  private int squareCell(int[] cell, int symmetry) {
+    int last = geometry.getSize() - 1;
+    int x = cell[0];
+    int y = cell[1];
+    if ((symmetry & 4) != 0) {
+      int swap = x;
+      x = y;
+      y = swap;
+    }
+    if ((symmetry & 1) != 0) {
+      x = last - x;
+    }
+    if ((symmetry & 2) != 0) {
+      y = last - y;
+    }
+    return geometry.index(x, y);
+  }
+
+  /**
+   * Maps a cell of a hexagonal layout through one of the twelve symmetries of the hexagon: a
+   * sixth of a turn around the center some number of times, then a mirror for half of them.
+   *
+   * @return The geometry index of the cell it lands on, or -1 if it is off the board.
+   */
+  private int hexCell(int[] cell, int symmetry) {
+    int q = cell[0];
+    int r = cell[1];
+    int s = -q - r;
+    for (int turn = 0; turn < symmetry % 6; turn++) {
+      int nextQ = -r;
+      int nextR = -s;
+      s = -q;
+      q = nextQ;
+      r = nextR;
+    }
+    if (symmetry >= 6) {
+      r = s;
+    }
+    return geometry.index(q, r);
+  }
+
+  /**
+   * Builds tables scoring every code of every family by hand-picked values for what each cell
+   * is: corners are worth a lot, the cells next to an empty corner give it away and are worth less
+   * than nothing, edges are worth a little more than the rest. A hexagonal corner has half the
+   * lines into it a square one has, and playing next to it gives it away too seldom to be worth
+   * avoiding, so on hexagonal boards those cells score as if the corner were taken. A disc counts
+   * for black and against white. These are the starting point for tuning, which replaces them.
+   *
+   * @return A table of scores for black for each family, indexed by code.
+   */
+  int[][] defaultWeights() {
+    int[][] weights = new int[FAMILY_COUNT][];
+    for (int f = 0; f < FAMILY_COUNT; f++) {
+      int[] kind = kinds[f];
+      weights[f] = new int[tableSize(f)];
+      for (int code = 0; code < weights[f].length; code++) {
+        int[] digits = new int[kind.length];
+        int rest = code;
+        for (int i = 0; i < kind.length; i++) {
+          digits[i] = rest % 3;
+          rest /= 3;
+        }
+        int score = 0;
+        for (int i = 0; i < kind.length; i++) {
+          if (digits[i] != 0) {
+            int corner = corners[f][i];
+            int value = cellValue(kind[i], corner >= 0,
+                    geometry.isHex() || (corner >= 0 && digits[corner] != 0));
+            score += digits[i] == 1 ? value : -value;
+          }
+        }
+        weights[f][code] = score;
+      }
+    }
+    return weights;
+  }
+
+  private static int cellValue(int kind, boolean cornerKnown, boolean cornerTaken) {
+    if (kind == CORNER_CELL) {
+      return 30;
+    } else if (kind == NEXT_TO_CORNER || kind == DIAGONAL_TO_CORNER) {
+      if (cornerTaken) {
+        return 2;
+      }
+      int value = kind == DIAGONAL_TO_CORNER ? -14 : -8;
+      return cornerKnown ? value : value / 2;
+    } else if (kind == EDGE_CELL) {
+      return 3;
+    }
+    return 1;
+  }
+
+  /**
+   * Works out the code of every pattern from the discs on a board.
+   *
+   * @param model The board to read.
+   * @param codes The array to fill, one code per pattern.
+   */
+  void codes(ReversiReadOnly model, int[] codes) {
+    Arrays.fill(codes, 0);
+    for (int cell = 0; cell < geometry.getCellCount(); cell++) {
+      update(codes, cell, digit(model.getDiscAt(geometry.getFirstCoordinate(cell),
+              geometry.getSecondCoordinate(cell))));
+    }
+  }
+
+  /**
+   * Changes the digit of a cell in the code of every pattern it is in.
+   *
+   * @param codes  The codes of the patterns, one per pattern.
+   * @param cell   The geometry index of the cell.
+   * @param change The new digit of the cell minus its old one.
+   */
+  void update(int[] codes, int cell, int change) {
+    if (change != 0) {
+      int[] patterns = cellPatterns[cell];
+      int[] powers = cellPowers[cell];
+      for (int i = 0; i < patterns.length; i++) {
+        codes[patterns[i]] += change * powers[i];
+      }
+    }
+  }
+
+  /**
+   * Works out, for every code of a family, the code of the same cells with black and white
+   * swapped. Tables of weights for black score each code as the negation of its swapped code.
+   *
+   * @param f The family.
+   * @return The swapped code of every code, indexed by code.
+   */
+  int[] swappedCodes(int f) {
+    int[] swapped = new int[tableSize(f)];
+    for (int code = 0; code < swapped.length; code++) {
+      int rest = code;
+      int power = 1;
+      for (int i = 0; i < kinds[f].length; i++) {
+        int digit = rest % 3;
+        swapped[code] += (digit == 0 ? 0 : 3 - digit) * power;
+        rest /= 3;
+        power *= 3;
+      }
+    }
+    return swapped;
+  }
+
+  /**
+   * The digit a disc adds to the code of a pattern, before being multiplied by the power of
+   * three of the disc's cell within the pattern.
+   *
+   * @param disc The disc.
+   * @return 0 for an empty cell, 1 for black and 2 for white.
+   */
+  static int digit(Disc disc) {
+    if (disc == Disc.BLACK) {
+      return 1;
+    } else if (disc == Disc.WHITE) {
+      return 2;
+    }
+    return 0;
+  }
+
+  /**
+   * The number of codes a family can have, 3 to the number of cells in it.
+   *
+   * @param f The family.
+   * @return The size of the family's table.
+   */
+  int tableSize(int f) {
+    int size = 1;
+    for (int i = 0; i < kinds[f].length; i++) {
+      size *= 3;
+    }
+    return size;
+  }
+
+  Geometry getGeometry() {
+    return geometry;
+  }
+
+  int getPatternCount() {
+    return cells.length;
+  }
+
+  int getFamily(int pattern) {
+    return family[pattern];
+  }
+
+  /**
+   * Works out where every cell of the board lands under each symmetry of the board, the eight
+   * of a square or the twelve of a hexagon. Positions mapped through a symmetry are as good or
+   * bad as the original, which lets a trainer learn from each position several times over.
+   *
+   * @return For each symmetry, the geometry index each cell maps to, indexed by cell.
+   */
+  int[][] symmetries() {
+    int[][] maps = new int[geometry.isHex() ? 12 : 8][geometry.getCellCount()];
+    for (int symmetry = 0; symmetry < maps.length; symmetry++) {
+      for (int cell = 0; cell < geometry.getCellCount(); cell++) {
+        int[] at = {geometry.getFirstCoordinate(cell), geometry.getSecondCoordinate(cell)};
+        maps[symmetry][cell] = geometry.isHex() ? hexCell(at, symmetry) : squareCell(at, symmetry);
+      }
+    }
+    return maps;
+  }
+}
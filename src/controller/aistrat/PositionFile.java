@@ -0,0 +1,148 @@
+package controller.aistrat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import model.Geometry;
+
+/**
+ * A file of positions from finished games, each labeled with the game's result, written by
+ * {@link EvaluationTuner} and read by the tuner and {@link NetworkTrainer} to fit evaluations
+ * to. The file is memory mapped in slices, so that several threads can each read their own and
+ * files too large for one mapping can still be read.
+ *
+ * <p>The file starts with a 16 byte header: a marker, 1 for a hexagonal board or 0 for a square
+ * one, the board size and the number of positions. Each position that follows holds a byte per
+ * cell, 0 empty, 1 black or 2 white, then a byte for the result: 2 if black won, 1 for a draw
+ * and 0 if white won.
+ */
+final class PositionFile {
+  static final int MAGIC = 0x52504F53;
+  static final int HEADER_BYTES = 16;
+
+  private final Geometry geometry;
+  private final int count;
+  private final List<MappedByteBuffer> slices;
+
+  private PositionFile(Geometry geometry, int count, List<MappedByteBuffer> slices) {
+    this.geometry = geometry;
+    this.count = count;
+    this.slices = Collections.unmodifiableList(slices);
+  }
+
+  /**
+   * Maps a position file.
+   *
+   * @param file   The file to read.
+   * @param slices The number of slices to split the positions into, or more if a slice wouldn't
+   *               fit in one mapping.
+   * @return The mapped file.
+   * @throws IOException If the file can't be read or is not a position file.
+   */
+  static PositionFile open(Path file, int slices) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        continue;
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new IOException("Not a position file: " + file);
+      }
+      boolean hex = header.getInt() == 1;
+      int size = header.getInt();
+      int count = header.getInt();
+      if (size <= 0) {
+        throw new IOException("Not a position file: " + file);
+      }
+      Geometry geometry = hex ? Geometry.hex(size) : Geometry.square(size);
+      long recordBytes = geometry.getCellCount() + 1;
+      if (count < 0 || channel.size() != HEADER_BYTES + count * recordBytes) {
+        throw new IOException("Position file is truncated: " + file);
+      }
+      int sliceCount = (int) Math.max(slices,
+              (count * recordBytes + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+      List<MappedByteBuffer> mapped = new ArrayList<MappedByteBuffer>();
+      for (int s = 0; s < sliceCount; s++) {
+        long first = (long) count * s / sliceCount;
+        long end = (long) count * (s + 1) / sliceCount;
+        mapped.add(channel.map(FileChannel.MapMode.READ_ONLY,
+                HEADER_BYTES + first * recordBytes, (end - first) * recordBytes));
+      }
+      return new PositionFile(geometry, count, mapped);
+    }
+  }
+
+  /**
+   * Writes the header of a position file at the start of the channel.
+   *
+   * @param channel  The channel of the file, left at the position it was at.
+   * @param geometry The geometry of the board the positions are on.
+   * @param count    The number of positions in the file.
+   * @throws IOException If the header can't be written.
+   */
+  static void writeHeader(FileChannel channel, Geometry geometry, int count)
+          throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(geometry.isHex() ? 1 : 0).putInt(geometry.getSize())
+        .putInt(count);
+    header.flip();
+    while (header.hasRemaining()) {
+      channel.write(header, header.position());
+    }
+  }
+
+  Geometry getGeometry() {
+    return geometry;
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  List<MappedByteBuffer> getSlices() {
+    return slices;
+  }
+
+  /**
+   * The number of positions in a slice.
+   *
+   * @param slice One of the file's slices.
+   * @return The number of positions in it.
+   */
+  int countIn(ByteBuffer slice) {
+    return slice.capacity() / (geometry.getCellCount() + 1);
+  }
+
+  /**
+   * The chance of black winning the game a position was played in: 1 for a win, a half for a
+   * draw and 0 for a loss.
+   *
+   * @param slice  The slice holding the position.
+   * @param record The index of the position within the slice.
+   * @return The result of the game for black.
+   */
+  double result(ByteBuffer slice, int record) {
+    int recordBytes = geometry.getCellCount() + 1;
+    return slice.get(record * recordBytes + recordBytes - 1) / 2.0;
+  }
+
+  /**
+   * The digit of a cell in a position: 0 empty, 1 black or 2 white.
+   *
+   * @param slice  The slice holding the position.
+   * @param record The index of the position within the slice.
+   * @param cell   The geometry index of the cell.
+   * @return The digit of the cell.
+   */
+  int digit(ByteBuffer slice, int record, int cell) {
+    return slice.get(record * (geometry.getCellCount() + 1) + cell);
+  }
+}
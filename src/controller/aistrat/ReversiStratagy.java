@@ -23,4 +23,19 @@ public interface ReversiStratagy {
    */
   Position chooseMove(ReversiReadOnly model, Disc turn);
 
+  /**
+   * Determines the next move using the moves already worked out for this turn. Strategies that
+   * ask others, such as {@link TryTwo}, pass every strategy they ask the same context, so the
+   * legal moves are only generated once a turn. A strategy that has no use for the context
+   * chooses as {@link #chooseMove(ReversiReadOnly, Disc)} does.
+   *
+   * @param model   The current state of the Reversi game.
+   * @param turn    The disc color (either BLACK or WHITE) of the current player.
+   * @param context The moves of the current player in this position.
+   * @return The of the chosen move according to the strategy's logic.
+   */
+  default Position chooseMove(ReversiReadOnly model, Disc turn, MoveContext context) {
+    return chooseMove(model, turn);
+  }
+
 }
@@ -0,0 +1,45 @@
+package controller.aistrat;
+
+import model.BitSquareBoard;
+import model.BoardSnapshot;
+import model.FlatHexBoard;
+import model.Reversi;
+import model.ReversiReadOnly;
+
+/**
+ * Makes the private boards the searching strategies play on. A strategy is only handed a read
+ * only view of the game, so it searches on a copy started from a snapshot of it, using the
+ * fastest model for the shape of the board: a FlatHexBoard for hexagonal games and a
+ * BitSquareBoard for square ones. Both take moves back with undoMove, so a search keeps a
+ * single copy for its whole tree. AIPlayer uses the same copies to think ahead in the
+ * background without touching the game being played.
+ */
+public final class SearchBoards {
+
+  private SearchBoards() {
+  }
+
+  /**
+   * Copies the position of a game onto a new board with no observers.
+   *
+   * @param model The game to copy.
+   * @return A new board holding the same discs and player to move.
+   */
+  public static Reversi copyOf(ReversiReadOnly model) {
+    return fromSnapshot(model.snapshot());
+  }
+
+  /**
+   * Starts a new board with no observers from a snapshot. Snapshots never change, so several
+   * threads may each start their own board from the same one.
+   *
+   * @param snapshot The position to start from.
+   * @return A new board holding the snapshot's discs and player to move.
+   */
+  public static Reversi fromSnapshot(BoardSnapshot snapshot) {
+    if (snapshot.getGeometry().isHex()) {
+      return new FlatHexBoard(snapshot);
+    }
+    return new BitSquareBoard(snapshot);
+  }
+}
@@ -0,0 +1,97 @@
+package controller.aistrat;
+
+import java.util.Collections;
+import java.util.List;
+
+import model.Position;
+
+/**
+ * The outcome of a search: the move it settled on, the score it gave that move from the point of
+ * view of the player to move, how deep it looked and how many positions it visited to get there.
+ * Searches that track it also report the principal variation, the line of play they expect
+ * from both players starting with the chosen move.
+ */
+public final class SearchResult {
+  private final Position move;
+  private final int score;
+  private final int depth;
+  private final long nodes;
+  private final List<Position> principalVariation;
+
+  /**
+   * Creates the result of a search with no principal variation.
+   *
+   * @param move  The move chosen, or the pass coordinate if the player had no move.
+   * @param score The score of the move for the player to move.
+   * @param depth The depth, in moves, the search looked ahead.
+   * @param nodes The number of positions the search visited.
+   */
+  public SearchResult(Position move, int score, int depth, long nodes) {
+    this(move, score, depth, nodes, Collections.<Position>emptyList());
+  }
+
+  /**
+   * Creates the result of a search.
+   *
+   * @param move               The move chosen, or the pass coordinate if the player had no move.
+   * @param score              The score of the move for the player to move.
+   * @param depth              The depth, in moves, the search looked ahead.
+   * @param nodes              The number of positions the search visited.
+   * @param principalVariation The expected line of play, starting with the move, with a pass
+   *                           shown as the pass coordinate.
+   */
+  public SearchResult(Position move, int score, int depth, long nodes,
+                      List<Position> principalVariation) {
+    this.move = move;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+    this.principalVariation = Collections.unmodifiableList(principalVariation);
+  }
+
+  /**
+   * Retrieves the move chosen by the search.
+   *
+   * @return The move chosen, or the pass coordinate if the player had no move.
+   */
+  public Position getMove() {
+    return move;
+  }
+
+  /**
+   * Retrieves the score the search gave its move, from the point of view of the player to move.
+   *
+   * @return The score of the move.
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Retrieves how many moves ahead the search looked.
+   *
+   * @return The depth of the search.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Retrieves the number of positions the search visited.
+   *
+   * @return The number of nodes searched.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Retrieves the line of play the search expects, starting with its move. The line may stop
+   * short of the search's depth where the search took a score from its transposition table.
+   *
+   * @return The principal variation, or an empty list if the search didn't track it.
+   */
+  public List<Position> getPrincipalVariation() {
+    return principalVariation;
+  }
+}
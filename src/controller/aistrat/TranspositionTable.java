@@ -0,0 +1,182 @@
+package controller.aistrat;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size memory of positions already searched, keyed by their Zobrist hash, that lets a
+ * search reuse the result of a position reached again through a different order of moves. The
+ * table is a single array of longs: every entry takes two of them, the data packed into one
+ * long and the hash exclusive-ored with the data in the other, so no object is made per entry and
+ * an entry torn by two threads writing it at once simply fails to match on the next probe.
+ *
+ * <p>Entries are grouped in buckets of two slots. The first slot keeps the deepest search seen
+ * for its bucket, being replaced only by a search at least as deep or by any search once its
+ * entry is left over from an earlier move; the second slot always takes the newest entry, or
+ * the one pushed out of the first slot, so recent shallow results are still remembered.
+ */
+public final class TranspositionTable {
+  /**
+   * The stored score is the exact score of the position.
+   */
+  public static final int EXACT = 1;
+  /**
+   * The stored score is a lower bound: the search stopped at a move that scored at least beta.
+   */
+  public static final int LOWER = 2;
+  /**
+   * The stored score is an upper bound: no move scored more than alpha.
+   */
+  public static final int UPPER = 3;
+
+  // layout of the packed data, from the lowest bit up
+  private static final int MOVE_BITS = 16;
+  private static final int DEPTH_SHIFT = 16;
+  private static final int BOUND_SHIFT = 24;
+  private static final int AGE_SHIFT = 26;
+  private static final int SCORE_SHIFT = 32;
+  private static final long MOVE_MASK = (1L << MOVE_BITS) - 1;
+  private static final int MAX_AGE = 63;
+
+  private final long[] slots;
+  private final int bucketMask;
+  private int age;
+
+  /**
+   * Creates a table taking up about the given amount of memory. The number of buckets is
+   * rounded down to a power of two so a bucket can be picked from the low bits of a hash.
+   *
+   * @param megabytes The memory to use, in megabytes.
+   * @throws IllegalArgumentException If the size is not between 1 and 8192 megabytes.
+   */
+  public TranspositionTable(int megabytes) {
+    if (megabytes < 1 || megabytes > 8192) {
+      throw new IllegalArgumentException("Table size must be between 1 and 8192 megabytes");
+    }
+    // a bucket is two slots of two longs each, 32 bytes
+    long buckets = Long.highestOneBit(megabytes * 1024L * 1024L / 32);
+    // a Java array holds fewer than 2^31 longs
+    buckets = Math.min(buckets, 1L << 28);
+    this.slots = new long[(int) buckets * 4];
+    this.bucketMask = (int) buckets - 1;
+  }
+
+  /**
+   * Retrieves the number of entries the table can hold.
+   *
+   * @return The number of slots in the table.
+   */
+  public int getCapacity() {
+    return slots.length / 2;
+  }
+
+  /**
+   * Marks the start of the search for a new move. Entries from earlier moves are still used,
+   * but may now be replaced by shallower ones.
+   */
+  public void newSearch() {
+    age = (age + 1) & MAX_AGE;
+  }
+
+  /**
+   * Forgets every entry.
+   */
+  public void clear() {
+    Arrays.fill(slots, 0L);
+  }
+
+  /**
+   * Looks up a position.
+   *
+   * @param hash The Zobrist hash of the position.
+   * @return The packed entry for the position, or 0 if the table doesn't hold it.
+   */
+  public long probe(long hash) {
+    int base = bucket(hash);
+    for (int slot = base; slot < base + 4; slot += 2) {
+      long data = slots[slot + 1];
+      if (data != 0 && (slots[slot] ^ data) == hash) {
+        return data;
+      }
+    }
+    return 0L;
+  }
+
+  /**
+   * Records the result of searching a position.
+   *
+   * @param hash  The Zobrist hash of the position.
+   * @param depth The depth the position was searched to, between 0 and 255.
+   * @param bound Whether the score is {@link #EXACT}, a {@link #LOWER} or an {@link #UPPER}
+   *              bound.
+   * @param score The score of the position for the player to move.
+   * @param move  The geometry index of the best move found, or -1 if there is none.
+   */
+  public void store(long hash, int depth, int bound, int score, int move) {
+    long data = ((long) score << SCORE_SHIFT)
+            | ((long) age << AGE_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+            | (move + 1 > MOVE_MASK ? 0 : move + 1);
+    int base = bucket(hash);
+    long preferred = slots[base + 1];
+    if (preferred == 0
+            || (slots[base] ^ preferred) == hash
+            || depth >= getDepth(preferred)
+            || ((preferred >>> AGE_SHIFT) & MAX_AGE) != age) {
+      if (preferred != 0 && (slots[base] ^ preferred) != hash) {
+        // the deepest entry so far moves over to the newest slot rather than being lost
+        slots[base + 2] = slots[base];
+        slots[base + 3] = preferred;
+      }
+      slots[base] = hash ^ data;
+      slots[base + 1] = data;
+    } else {
+      slots[base + 2] = hash ^ data;
+      slots[base + 3] = data;
+    }
+  }
+
+  private int bucket(long hash) {
+    return ((int) hash & bucketMask) * 4;
+  }
+
+  /**
+   * Reads the depth of a packed entry.
+   *
+   * @param entry An entry returned by {@link #probe(long)}.
+   * @return The depth the position was searched to.
+   */
+  public static int getDepth(long entry) {
+    return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+  }
+
+  /**
+   * Reads the bound type of a packed entry.
+   *
+   * @param entry An entry returned by {@link #probe(long)}.
+   * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+   */
+  public static int getBound(long entry) {
+    return (int) (entry >>> BOUND_SHIFT) & 3;
+  }
+
+  /**
+   * Reads the score of a packed entry.
+   *
+   * @param entry An entry returned by {@link #probe(long)}.
+   * @return The score of the position for the player to move.
+   */
+  public static int getScore(long entry) {
+    return (int) (entry >> SCORE_SHIFT);
+  }
+
+  /**
+   * Reads the best move of a packed entry.
+   *
+   * @param entry An entry returned by {@link #probe(long)}.
+   * @return The geometry index of the best move, or -1 if none was recorded.
+   */
+  public static int getMove(long entry) {
+    return (int) (entry & MOVE_MASK) - 1;
+  }
+}
@@ -1,6 +1,5 @@
 package controller.aistrat;
 
-import model.Coordinate;
 import model.Disc;
 import model.Position;
 import model.ReversiReadOnly;
@@ -36,10 +35,25 @@ public class TryTwo implements ReversiStratagy {
    * @param turn  The object representing the current player's turn.
    * @return The chosen for the move, or a specified coordinate indicating no move is found.
    */
+  @Override
   public Position chooseMove(ReversiReadOnly model, Disc turn) {
-    Position ans = this.first.chooseMove(model, turn);
-    if (ans.equals(new Coordinate(model.getSize(), model.getSize()))) {
-      ans = this.second.chooseMove(model, turn);
+    return chooseMove(model, turn, new MoveContext(model));
+  }
+
+  /**
+   * Chooses a move as {@link #chooseMove(ReversiReadOnly, Disc)} does, handing both strategies
+   * the same context so the moves are generated once however deeply strategies are combined.
+   *
+   * @param model   The Reversi game model representing the current state of the game.
+   * @param turn    The object representing the current player's turn.
+   * @param context The moves of the current player in this position.
+   * @return The chosen for the move, or a specified coordinate indicating no move is found.
+   */
+  @Override
+  public Position chooseMove(ReversiReadOnly model, Disc turn, MoveContext context) {
+    Position ans = this.first.chooseMove(model, turn, context);
+    if (ans.equals(context.getPass())) {
+      ans = this.second.chooseMove(model, turn, context);
     }
     return ans;
   }
@@ -20,6 +20,26 @@ public abstract class AbstractModel implements Reversi {
   protected Turn whoseTurn;
   protected int size;
   protected List<ControllerFeatures> observers;
+  protected Geometry geometry;
+  // the cells of the grid in geometry index order, sharing the same Cell objects as the grid
+  protected Cell[] cells;
+  // the moves and passes made so far, so they can be taken back by undoMove
+  protected final UndoStack history = new UndoStack();
+  // the number of black discs, white discs and empty cells, kept up to date by writeDisc
+  protected int blackCount;
+  protected int whiteCount;
+  protected int emptyCount;
+  // the Zobrist hash of the discs on the board and the player to move, kept up to date alongside
+  // the counts
+  protected long positionHash;
+  // a persistent copy of the discs that snapshots share, made by the first snapshot and then kept
+  // in step with every write
+  private DiscTrie snapshotTrie;
+  // told of every change to a single disc, if set
+  private DiscListener discListener;
+  // whether isGameOver has been worked out since the board or turn last changed, and its answer
+  private boolean gameOverChecked;
+  private boolean gameOver;
 
   /**
    * Constructs an AbstractModel for a Reversi game with the specified board size. Sets up the.
@@ -37,6 +57,156 @@ public abstract class AbstractModel implements Reversi {
   }
 
 
+  /**
+   * Indexes the cells of the grid by the given geometry, so that moves can be checked by walking
+   * the geometry's precomputed rays instead of looking up coordinates in the grid. Called by
+   * subclasses once the grid has been filled in.
+   *
+   * @param geometry The geometry of the board this model plays on.
+   */
+  protected void indexCells(Geometry geometry) {
+    this.geometry = geometry;
+    this.cells = new Cell[geometry.getCellCount()];
+    for (int index = 0; index < cells.length; index++) {
+      cells[index] = grid.get(geometry.getPosition(index));
+    }
+    countDiscs();
+  }
+
+  /**
+   * Recounts the black discs, white discs and empty cells on the board and rehashes the position
+   * from scratch. Called once a board has been filled in, after which the counts and hash are
+   * kept up to date by every write.
+   */
+  protected void countDiscs() {
+    blackCount = 0;
+    whiteCount = 0;
+    emptyCount = 0;
+    positionHash = whoseTurn == Turn.WHITE ? geometry.getTurnKey() : 0L;
+    for (int index = 0; index < geometry.getCellCount(); index++) {
+      Disc disc = readDisc(index);
+      adjustCount(disc, 1);
+      positionHash ^= geometry.discKey(index, disc);
+    }
+    invalidateGameOver();
+  }
+
+  /**
+   * Updates the disc counts and hash for a move that placed one of the player's discs and flipped
+   * the given number of the opponent's, for boards that change their cells in bulk rather than
+   * through {@link #writeDisc(int, Disc)}. Each flipped disc is reported with
+   * {@link #recordFlip(int)}.
+   *
+   * @param index   The geometry index of the cell played.
+   * @param player  The player who made the move.
+   * @param flipped The number of opposing discs the move flipped.
+   */
+  protected void countMove(int index, Disc player, int flipped) {
+    adjustCount(player, flipped + 1);
+    adjustCount(player == Disc.BLACK ? Disc.WHITE : Disc.BLACK, -flipped);
+    emptyCount -= 1;
+    positionHash ^= geometry.discKey(index, player);
+    if (snapshotTrie != null) {
+      snapshotTrie.set(index, player);
+    }
+    if (discListener != null) {
+      discListener.discChanged(index, Disc.EMPTY, player);
+    }
+    invalidateGameOver();
+  }
+
+  /**
+   * Records a disc flipped in bulk by the move being made, both in its undo entry and in the
+   * position hash.
+   *
+   * @param index The geometry index of the flipped cell.
+   */
+  protected void recordFlip(int index) {
+    history.addFlip(index);
+    positionHash ^= geometry.discKey(index, Disc.BLACK) ^ geometry.discKey(index, Disc.WHITE);
+    if (snapshotTrie != null) {
+      snapshotTrie.set(index, readDisc(index));
+    }
+    if (discListener != null) {
+      Disc disc = readDisc(index);
+      discListener.discChanged(index, disc == Disc.BLACK ? Disc.WHITE : Disc.BLACK, disc);
+    }
+  }
+
+  /**
+   * Takes an immutable snapshot of the board and the player to move. The first snapshot of a game
+   * copies the board once; after that every snapshot is taken in constant time and shares its
+   * cells with the game, which copies only the few cells a later move changes.
+   *
+   * @return A snapshot of the current position.
+   */
+  public BoardSnapshot snapshot() {
+    if (snapshotTrie == null) {
+      snapshotTrie = new DiscTrie(geometry.getCellCount());
+      for (int index = 0; index < geometry.getCellCount(); index++) {
+        snapshotTrie.set(index, readDisc(index));
+      }
+    }
+    return new BoardSnapshot(geometry, whoseTurn, positionHash, snapshotTrie.getShift(),
+            snapshotTrie.freeze());
+  }
+
+  /**
+   * Fills a freshly built board in from a snapshot. The discs are copied into the board's own
+   * storage, while the snapshot's cells are shared as the board's snapshot copy, so snapshots of
+   * the new board cost nothing extra until it changes.
+   *
+   * @param snapshot The snapshot to fill the board in from.
+   * @throws IllegalArgumentException If the snapshot is of a board of a different shape or size.
+   */
+  protected void restore(BoardSnapshot snapshot) {
+    if (snapshot.getGeometry() != geometry) {
+      throw new IllegalArgumentException("The snapshot is of a different board");
+    }
+    for (int index = 0; index < geometry.getCellCount(); index++) {
+      storeDisc(index, snapshot.getDisc(index));
+    }
+    whoseTurn = snapshot.getTurn();
+    countDiscs();
+    snapshotTrie = snapshot.toTrie();
+  }
+
+  @Override
+  public void setDiscListener(DiscListener listener) {
+    this.discListener = listener;
+  }
+
+  /**
+   * Retrieves the Zobrist hash of the current position, covering every disc on the board and the
+   * player to move. Kept up to date as discs are placed, moves are made or undone and turns are
+   * passed, so reading it is free.
+   *
+   * @return The hash of the current position.
+   */
+  public long getPositionHash() {
+    return positionHash;
+  }
+
+  private void adjustCount(Disc disc, int change) {
+    if (disc == Disc.BLACK) {
+      blackCount += change;
+    } else if (disc == Disc.WHITE) {
+      whiteCount += change;
+    } else {
+      emptyCount += change;
+    }
+  }
+
+  /**
+   * Retrieves the geometry of the board, which numbers its cells and holds the rays that
+   * captures are checked along.
+   *
+   * @return The geometry of the board.
+   */
+  public Geometry getGeometry() {
+    return geometry;
+  }
+
   /**
    * Used to return a map representation of the current game board, which holds what pieces.
    * are placed at what positions.
@@ -103,23 +273,71 @@ public abstract class AbstractModel implements Reversi {
   /**
    * Passes the turn to the next player.
    * used to swap turns either when a player passes their turn or at the end of their move and then.
-   * updates all subcribed listeners about the change in game state.
+   * updates all subcribed listeners about the change in game state. The pass is recorded so that
+   * it can be taken back by {@link #undoMove()}.
    */
   public void passTurn() {
     if (gameState != GameState.PRE) {
-      if (whoseTurn == Turn.BLACK) {
-        whoseTurn = Turn.WHITE;
-      } else {
-        whoseTurn = Turn.BLACK;
-      }
-      consecPasses += 1;
+      history.push(-1, whoseTurn, consecPasses, gameState);
+      advanceTurn();
     } else {
       throw new IllegalStateException("The game has not been started yet no move can be made");
     }
+  }
+
+  /**
+   * Swaps the turn over to the other player, counts it as a pass and updates all subscribed
+   * listeners. Shared by passing and by the end of a move, which records its own undo entry
+   * before calling this and then resets the pass counter.
+   */
+  protected void advanceTurn() {
+    if (whoseTurn == Turn.BLACK) {
+      whoseTurn = Turn.WHITE;
+    } else {
+      whoseTurn = Turn.BLACK;
+    }
+    consecPasses += 1;
+    positionHash ^= geometry.getTurnKey();
+    invalidateGameOver();
 
     notifyObservers();
     notifyTurnChange();
+  }
 
+  /**
+   * Takes back the most recent move or pass. The discs it flipped are turned back, the disc it
+   * placed is removed, and the turn, pass counter and game state are put back to what they were
+   * before it. Only the cells the move touched are restored, so exploring a move and undoing it
+   * costs as much as the move itself rather than a copy of the board. Observers are not notified,
+   * as this is meant for looking ahead rather than for changing the game being shown.
+   *
+   * @throws IllegalStateException If no move or pass has been made since the game started.
+   */
+  public void undoMove() {
+    if (history.isEmpty()) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    Turn previousTurn = history.previousTurn();
+    Disc opponent;
+    if (previousTurn == Turn.BLACK) {
+      opponent = Disc.WHITE;
+    } else {
+      opponent = Disc.BLACK;
+    }
+    for (int i = 0; i < history.flipCount(); i++) {
+      writeDisc(history.flip(i), opponent);
+    }
+    if (history.placed() >= 0) {
+      writeDisc(history.placed(), Disc.EMPTY);
+    }
+    if (whoseTurn != previousTurn) {
+      positionHash ^= geometry.getTurnKey();
+    }
+    whoseTurn = previousTurn;
+    consecPasses = history.previousPasses();
+    gameState = history.previousState();
+    history.pop();
+    invalidateGameOver();
   }
 
   /**
@@ -134,28 +352,16 @@ public abstract class AbstractModel implements Reversi {
 
   /**
    * Checks if the specified player has any valid moves available on the board.
-   * This method creates a copy of the current game board and iterates through
-   * all possible moves to determine if at least one valid move exists for the player.
+   * This method walks the empty cells in place and stops at the first one that would capture
+   * a disc, without copying the board.
    *
    * @param playerDisc The {@link Disc} representing the player to check for valid moves.
    * @return True if there are valid moves available for the player, false otherwise.
    */
   protected boolean hasValidMoves(Disc playerDisc) {
-    Turn current;
-    if (playerDisc.equals(Disc.BLACK)) {
-      current = Turn.BLACK;
-    } else {
-      current = Turn.WHITE;
-    }
-    for (Position coord : grid.keySet()) {
-      Board dupe = new Board(size, this.createCopyOfBoard(), current);
-      if (this.createCopyOfBoard().get(coord).getContent().equals(Disc.EMPTY)) {
-        try {
-          dupe.makeMove(coord);
-          return true;
-        } catch (IllegalArgumentException e) {
-          // Ignore and continue checking other moves
-        }
+    for (int index = 0; index < geometry.getCellCount(); index++) {
+      if (readDisc(index) == Disc.EMPTY && countFlips(index, playerDisc) > 0) {
+        return true;
       }
     }
     return false;
@@ -180,7 +386,9 @@ public abstract class AbstractModel implements Reversi {
   }
 
   /**
-   * Checks if the game is over. Adjusts the gameState enum to reflect who wins.
+   * Checks if the game is over. Adjusts the gameState enum to reflect who wins. The answer is
+   * worked out once and then reused until the next change to the board or the turn, as the
+   * controllers and views ask several times after every move.
    *
    * @return True if the game is over, otherwise false.
    */
@@ -188,20 +396,34 @@ public abstract class AbstractModel implements Reversi {
     if (gameState == GameState.PRE) {
       throw new IllegalStateException("The game has not been started this cannot be checked");
     }
+    if (!gameOverChecked) {
+      gameOver = checkGameOver();
+      gameOverChecked = true;
+    }
+    return gameOver;
+  }
+
+  /**
+   * Forgets the cached answer to {@link #isGameOver()}. Called on every change to the board, the
+   * turn or the pass count.
+   */
+  protected void invalidateGameOver() {
+    gameOverChecked = false;
+  }
+
+  /**
+   * Works out whether the game is over, recording the winner in the game state if it is.
+   *
+   * @return True if the game is over, otherwise false.
+   */
+  private boolean checkGameOver() {
     // Check for consecutive passes
     if (consecPasses == 2) {
       whoWins();
       return true;
     }
 
-    boolean allCellsFilled = true;
-    for (Cell cell : grid.values()) {
-      if (cell.getContent() == Disc.EMPTY) {
-        allCellsFilled = false;
-        break;
-      }
-    }
-    if (allCellsFilled) {
+    if (isBoardFull()) {
       whoWins();
       return true;
     }
@@ -224,18 +446,27 @@ public abstract class AbstractModel implements Reversi {
   }
 
   /**
-   * Retrieves the score for the inputted player by checking through how many pieces are placed.
+   * Checks whether every cell on the board holds a disc.
+   *
+   * @return True if there are no empty cells left on the board, otherwise false.
+   */
+  protected boolean isBoardFull() {
+    return emptyCount == 0;
+  }
+
+  /**
+   * Retrieves the score for the inputted player from the running count of their pieces on the
+   * board, or the number of empty cells if given {@link Disc#EMPTY}.
    *
    * @return The number of pieces (score) of a certain player.
    */
   public int getScore(Disc player) {
-    int scoreCounter = 0;
-    for (Cell cell : grid.values()) {
-      if (cell.getContent().equals(player)) {
-        scoreCounter += 1;
-      }
+    if (player == Disc.BLACK) {
+      return blackCount;
+    } else if (player == Disc.WHITE) {
+      return whiteCount;
     }
-    return scoreCounter;
+    return emptyCount;
   }
 
   /**
@@ -245,16 +476,10 @@ public abstract class AbstractModel implements Reversi {
    */
   public ArrayList<Position> getPossibleMoves() {
     ArrayList<Position> possibleMoves = new ArrayList<>();
-    Board og = new Board(size, createCopyOfBoard(), whoseTurn);
+    Disc player = currentColor();
     for (Position coord : grid.keySet()) {
-      if (grid.get(coord).getContent().equals(Disc.EMPTY)) {
-        try {
-          Board og1 = new Board(size, og.createCopyOfBoard(), whoseTurn);
-          og1.makeMove(coord);
-          possibleMoves.add(coord);
-        } catch (IllegalArgumentException e) {
-          // Ignore and continue checking other moves
-        }
+      if (countFlips(coord, player) > 0) {
+        possibleMoves.add(coord);
       }
     }
     return possibleMoves;
@@ -262,9 +487,8 @@ public abstract class AbstractModel implements Reversi {
 
   /**
    * Evaluates and returns the change in score after a hypothetical move.
-   * This method simulates making a move on a copy of the current game board
-   * and calculates the change in resulting score from before the move is made.
-   * It's useful for strategy and AI decision-making as well as for hint feature.
+   * This method counts the discs the move would flip for the model's current player without
+   * making it. It's useful for strategy and AI decision-making as well as for hint feature.
    * If the move is invalid, it returns 0.
    *
    * @param model The {@link ReversiReadOnly} game model representing the current state.
@@ -272,22 +496,46 @@ public abstract class AbstractModel implements Reversi {
    * @return The change in score after making the move.
    */
   public int checkMove(ReversiReadOnly model, Position move) {
-    Turn turn = null;
-    if (model.currentColor().equals(Disc.BLACK)) {
-      turn = Turn.BLACK;
-    } else {
-      turn = Turn.WHITE;
-    }
-    Board copy = new Board(model.getSize(), model.createCopyOfBoard(), turn);
-    int score = 0;
-    int oldScore = copy.getScore(model.currentColor());
-    try {
-      copy.makeMove(move);
-      score = copy.getScore(model.currentColor()) - oldScore - 1;
-      return score;
-    } catch (IllegalArgumentException e) {
+    return model.countFlips(move, model.currentColor());
+  }
+
+  /**
+   * Counts the discs a player would capture by playing at a position, without making the move
+   * or throwing for an illegal one.
+   *
+   * @param move   The position being considered, which may be null.
+   * @param player The disc color of the player making the move.
+   * @return The number of opposing discs the move would flip, or 0 if the move is not legal.
+   */
+  public int countFlips(Position move, Disc player) {
+    if (move == null || player == Disc.EMPTY) {
+      return 0;
+    }
+    int index = geometry.index(move.getFirstCoordinate(), move.getSecondCoordinate());
+    if (index < 0 || readDisc(index) != Disc.EMPTY) {
       return 0;
     }
+    return countFlips(index, player);
+  }
+
+  /**
+   * Lists every cell the given player could legally play, in geometry order.
+   *
+   * @param player The disc color of the player to list moves for.
+   * @param moves  The array to write the moves into.
+   * @return The number of moves written.
+   */
+  public int listMoves(Disc player, int[] moves) {
+    int count = 0;
+    if (player == Disc.EMPTY) {
+      return count;
+    }
+    for (int index = 0; index < geometry.getCellCount(); index++) {
+      if (readDisc(index) == Disc.EMPTY && countFlips(index, player) > 0) {
+        moves[count++] = index;
+      }
+    }
+    return count;
   }
 
   /**
@@ -316,31 +564,157 @@ public abstract class AbstractModel implements Reversi {
 
   /**
    * Determines if a move is valid in the current game state.
-   * This method creates a copy of the current game board and attempts
-   * to make the specified move. If the move is successfully made without
-   * throwing an exception, the move is considered valid.
+   * This method counts the discs the current player would capture at the given position, without
+   * copying the board.
    *
    * @param coor        The {@link Position} where the move is to be made.
    * @param currentTurn The {@link Disc} representing the player making the move.
    * @return True if the move is valid, false otherwise.
    */
   public boolean validMove(Position coor, Disc currentTurn) {
-    Turn turn = null;
+    return countFlips(coor, currentColor()) > 0;
+  }
+
+  /**
+   * Attempts to make a move on the board by placing the current
+   * player's disc at the specified position.
+   * The method validates the move, flips any captured opponent discs,
+   * and switches the turn to the next player.
+   *
+   * @param dest The target position where the current player's disc should be placed.
+   * @throws IllegalArgumentException If the move is invalid, such as when the target
+   *                                  cell is already occupied or doesn't result in any opponent
+   *                                  disc captures.
+   */
+  public void makeMove(Position dest) {
+    if (gameState != GameState.PRE) {
+      if (dest == null) {
+        throw new IllegalArgumentException("Can't pass in a null coordinate");
+      }
+      int index = geometry.index(dest.getFirstCoordinate(), dest.getSecondCoordinate());
+      if (index < 0) {
+        throw new IllegalArgumentException("This space does not exist on the board");
+      }
+      if (readDisc(index) != Disc.EMPTY) {
+        throw new IllegalArgumentException("This space is already occupied");
+      }
+      if (countFlips(index, currentColor()) == 0) {
+        throw new IllegalArgumentException("Invalid move.");
+      }
 
-    if (currentColor().equals(Disc.BLACK)) {
-      turn = Turn.BLACK;
+      history.push(index, whoseTurn, consecPasses, gameState);
+      flipDiscs(index, currentColor());
+      this.advanceTurn();
+      this.consecPasses = 0;
+      invalidateGameOver();
     } else {
-      turn = Turn.WHITE;
+      throw new IllegalStateException("The game has not been started yet no move can be made");
     }
-    Board copy = new Board(getSize(), createCopyOfBoard(), turn);
-    try {
-      copy.makeMove(coor);
-      return true;
-    } catch (IllegalArgumentException e) {
-      return false;
+
+    notifyObservers();
+    notifyTurnChange();
+  }
+
+  /**
+   * Counts the opposing discs the given player would capture by placing a disc on a cell.
+   *
+   * @param index  The geometry index of the cell being played.
+   * @param player The player making the move.
+   * @return The number of discs that would be flipped, 0 if the move captures nothing.
+   */
+  protected int countFlips(int index, Disc player) {
+    int total = 0;
+    for (int dir = 0; dir < geometry.getDirectionCount(); dir++) {
+      total += countRun(geometry.ray(index, dir), player);
+    }
+    return total;
+  }
+
+  /**
+   * Places the given player's disc on a cell and flips every opposing disc it captures, recording
+   * each flipped cell in the undo entry the caller has just pushed.
+   *
+   * @param index  The geometry index of the cell being played.
+   * @param player The player making the move.
+   */
+  protected void flipDiscs(int index, Disc player) {
+    for (int dir = 0; dir < geometry.getDirectionCount(); dir++) {
+      int[] ray = geometry.ray(index, dir);
+      int run = countRun(ray, player);
+      for (int step = 0; step < run; step++) {
+        writeDisc(ray[step], player);
+        history.addFlip(ray[step]);
+      }
+    }
+    writeDisc(index, player);
+  }
+
+  /**
+   * Sets the disc on a cell and updates the disc counts and position hash to match. Every change
+   * placing a disc, a move or an undo makes to the board goes through here.
+   *
+   * @param index The geometry index of the cell.
+   * @param disc  The disc to put on the cell.
+   */
+  protected void writeDisc(int index, Disc disc) {
+    Disc previous = readDisc(index);
+    if (previous != disc) {
+      adjustCount(previous, -1);
+      adjustCount(disc, 1);
+      positionHash ^= geometry.discKey(index, previous) ^ geometry.discKey(index, disc);
+      storeDisc(index, disc);
+      if (snapshotTrie != null) {
+        snapshotTrie.set(index, disc);
+      }
+      if (discListener != null) {
+        discListener.discChanged(index, previous, disc);
+      }
+      invalidateGameOver();
     }
   }
 
+  /**
+   * Reads the disc on a cell. Boards that keep their discs somewhere other than the grid override
+   * this along with {@link #storeDisc(int, Disc)}.
+   *
+   * @param index The geometry index of the cell.
+   * @return The disc on the cell.
+   */
+  protected Disc readDisc(int index) {
+    return cells[index].getContent();
+  }
+
+  /**
+   * Stores the disc on a cell without touching the disc counts.
+   *
+   * @param index The geometry index of the cell.
+   * @param disc  The disc to put on the cell.
+   */
+  protected void storeDisc(int index, Disc disc) {
+    cells[index].setContent(disc);
+  }
+
+  /**
+   * Measures the run of opposing discs at the start of a ray that the given player would
+   * capture.
+   *
+   * @param ray    The cells along the ray, nearest first.
+   * @param player The player making the move.
+   * @return The number of opposing discs before the first of the player's own discs, or 0 if
+   *     the ray reaches an empty cell or the edge of the board first.
+   */
+  private int countRun(int[] ray, Disc player) {
+    for (int step = 0; step < ray.length; step++) {
+      Disc content = readDisc(ray[step]);
+      if (content == player) {
+        return step;
+      } else if (content == Disc.EMPTY) {
+        return 0;
+      }
+    }
+    return 0;
+  }
+
   /**
    * Returns the color of the disc of the opponent player.
    *
@@ -368,10 +742,7 @@ public abstract class AbstractModel implements Reversi {
    */
   public void placeDisc(int q, int r, Disc disc) {
     if (gameState != GameState.PRE) {
-      if (!(grid.keySet().contains(new Coordinate(q, r)))) {
-        throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
-      }
-      grid.get(new Coordinate(q, r)).setContent(disc);
+      writeDisc(cellIndex(q, r), disc);
     } else {
       throw new IllegalStateException("The game has not been started yet this cannot be done");
     }
@@ -388,10 +759,7 @@ public abstract class AbstractModel implements Reversi {
    */
   public Disc getDiscAt(int q, int r) {
     if (gameState != GameState.PRE) {
-      if (!(grid.keySet().contains(new Coordinate(q, r)))) {
-        throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
-      }
-      return grid.get(new Coordinate(q, r)).getContent();
+      return readDisc(cellIndex(q, r));
     } else {
       throw new IllegalStateException("The game has not been started yet this cannot be done");
     }
@@ -408,15 +776,25 @@ public abstract class AbstractModel implements Reversi {
    */
   public boolean isCellEmpty(int q, int r) {
     if (gameState != GameState.PRE) {
-      if (!(grid.keySet().contains(new Coordinate(q, r)))) {
-        throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
-      }
-      return grid.get(new Coordinate(q, r)).getContent() == Disc.EMPTY;
+      return readDisc(cellIndex(q, r)) == Disc.EMPTY;
     } else {
       throw new IllegalStateException("The game has not been started this cannot be checked");
     }
   }
 
-
+  /**
+   * Finds the geometry index of the cell at the given coordinates.
+   *
+   * @param q The first coordinate of the cell.
+   * @param r The second coordinate of the cell.
+   * @return The index of the cell.
+   * @throws IllegalArgumentException If the cell doesn't exist on the board.
+   */
+  protected int cellIndex(int q, int r) {
+    int index = geometry.index(q, r);
+    if (index < 0) {
+      throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
+    }
+    return index;
+  }
 }
-
@@ -0,0 +1,503 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A square game of Reversi backed by bitboards rather than a map of cells. Black and white discs
+ * are each stored as a bit mask with one bit per square (bit {@code y * size + x}), so an 8x8
+ * board fits in a single long per color and larger boards spill over into extra longs.
+ * Legal moves and captured discs are found by shifting whole masks one square at a time in each
+ * of the eight capturing directions, which avoids copying the board to test a move.
+ * Plays by exactly the same rules as {@link SquareBoard}.
+ */
+public class BitSquareBoard extends AbstractModel {
+
+  // column and row steps for the eight capturing directions, matching compassX and compassY in
+  // SquareBoard
+  private static final int[] DX = {-1, 1, 0, 0, 1, -1, 1, -1};
+  private static final int[] DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+  private final int words;
+  private final int cellCount;
+  private final long[] full;
+  // for each direction, the squares a disc may legally land on after a one step shift
+  private final long[][] landing;
+  private final int[] shifts;
+
+  private final long[] black;
+  private final long[] white;
+
+  // scratch masks reused by the move generator so that probing a move allocates nothing
+  private final long[] cur;
+  private final long[] next;
+  private final long[] run;
+  private final long[] flips;
+  private final long[] moves;
+
+  /**
+   * Initializes a new square game board of the specified size.
+   *
+   * @param size The size of the board.
+   */
+  public BitSquareBoard(int size) {
+    super(size);
+    if (size <= 0 || size % 2 != 0) {
+      throw new IllegalArgumentException("Board size must be positive and even");
+    }
+    this.geometry = Geometry.square(size);
+    this.cellCount = size * size;
+    this.words = (cellCount + 63) / 64;
+    this.full = new long[words];
+    this.landing = new long[DX.length][words];
+    this.shifts = new int[DX.length];
+    this.black = new long[words];
+    this.white = new long[words];
+    this.cur = new long[words];
+    this.next = new long[words];
+    this.run = new long[words];
+    this.flips = new long[words];
+    this.moves = new long[words];
+    buildMasks();
+    playGame();
+  }
+
+  /**
+   * Initializes a new square game board of the specified size, and overwrites the board using a
+   * given map of disc placements.
+   *
+   * @param size       The size of the board.
+   * @param grid1      The hashmap of discs to be overwritten onto the old grid.
+   * @param whoseTuren The turn that's to be instantiated in the new game.
+   */
+  public BitSquareBoard(int size, HashMap<Position, Cell> grid1, Turn whoseTuren) {
+    this(size);
+    this.whoseTurn = whoseTuren;
+    for (Position coord : grid1.keySet()) {
+      placeDisc(coord.getFirstCoordinate(), coord.getSecondCoordinate(),
+              grid1.get(coord).getContent());
+    }
+    countDiscs();
+  }
+
+  /**
+   * Initializes a new square game board holding the position in a snapshot, sharing the
+   * snapshot's cells so that copying a game through a snapshot stays cheap.
+   *
+   * @param snapshot The snapshot of a square board to start from.
+   * @throws IllegalArgumentException If the snapshot is not of a square board.
+   */
+  public BitSquareBoard(BoardSnapshot snapshot) {
+    this(snapshot.getGeometry().getSize());
+    restore(snapshot);
+  }
+
+  /**
+   * Precomputes the shift distance of every direction along with the squares a shifted disc is
+   * allowed to land on, so that discs on the left or right edge never wrap around to the other
+   * side of the board.
+   */
+  private void buildMasks() {
+    for (int index = 0; index < cellCount; index++) {
+      setBit(full, index);
+    }
+    for (int dir = 0; dir < DX.length; dir++) {
+      shifts[dir] = DY[dir] * size + DX[dir];
+      for (int index = 0; index < cellCount; index++) {
+        int x = index % size;
+        if ((DX[dir] == 1 && x == 0) || (DX[dir] == -1 && x == size - 1)) {
+          continue;
+        }
+        setBit(landing[dir], index);
+      }
+    }
+  }
+
+  /**
+   * Sets up the starting pieces for a square game of reversi.
+   */
+  private void playGame() {
+    if (gameState == GameState.PRE) {
+      gameState = GameState.INPROGRESS;
+      setBit(black, bitIndex(size / 2 - 1, size / 2 - 1)); // top left
+      setBit(white, bitIndex(size / 2, size / 2 - 1)); // top right
+      setBit(black, bitIndex(size / 2, size / 2)); // bottom right
+      setBit(white, bitIndex(size / 2 - 1, size / 2)); // bottom left
+      countDiscs();
+    } else {
+      throw new IllegalStateException("A game has already been started");
+    }
+
+    notifyObservers();
+  }
+
+  @Override
+  public void makeMove(Position dest) {
+    if (gameState != GameState.PRE) {
+      if (dest == null) {
+        throw new IllegalArgumentException("Can't pass in a null coordinate");
+      }
+      if (!onBoard(dest.getFirstCoordinate(), dest.getSecondCoordinate())) {
+        throw new IllegalArgumentException("This space does not exist on the board");
+      }
+      int index = bitIndex(dest.getFirstCoordinate(), dest.getSecondCoordinate());
+      if (testBit(black, index) || testBit(white, index)) {
+        throw new IllegalArgumentException("This space is already occupied");
+      }
+
+      long[] own = discs(currentColor());
+      long[] opp = discs(oppositeColor());
+      if (!findFlips(index, own, opp)) {
+        throw new IllegalArgumentException("Invalid move.");
+      }
+      history.push(index, whoseTurn, consecPasses, gameState);
+      for (int word = 0; word < words; word++) {
+        own[word] |= flips[word];
+        opp[word] &= ~flips[word];
+        for (long bits = flips[word]; bits != 0; bits &= bits - 1) {
+          recordFlip(word * 64 + Long.numberOfTrailingZeros(bits));
+        }
+      }
+      setBit(own, index);
+      countMove(index, currentColor(), bitCount(flips));
+      this.advanceTurn();
+      this.consecPasses = 0;
+      invalidateGameOver();
+    } else {
+      throw new IllegalStateException("The game has not been started yet no move can be made");
+    }
+
+    notifyObservers();
+    notifyTurnChange();
+  }
+
+  @Override
+  public void placeDisc(int q, int r, Disc disc) {
+    if (gameState != GameState.PRE) {
+      if (!onBoard(q, r)) {
+        throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
+      }
+      writeDisc(bitIndex(q, r), disc);
+    } else {
+      throw new IllegalStateException("The game has not been started yet this cannot be done");
+    }
+  }
+
+  @Override
+  protected void storeDisc(int index, Disc disc) {
+    clearBit(black, index);
+    clearBit(white, index);
+    if (disc == Disc.BLACK) {
+      setBit(black, index);
+    } else if (disc == Disc.WHITE) {
+      setBit(white, index);
+    }
+  }
+
+  @Override
+  public Disc getDiscAt(int q, int r) {
+    if (gameState != GameState.PRE) {
+      if (!onBoard(q, r)) {
+        throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
+      }
+      return readDisc(bitIndex(q, r));
+    } else {
+      throw new IllegalStateException("The game has not been started yet this cannot be done");
+    }
+  }
+
+  @Override
+  public boolean isCellEmpty(int q, int r) {
+    if (gameState != GameState.PRE) {
+      if (!onBoard(q, r)) {
+        throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
+      }
+      return readDisc(bitIndex(q, r)) == Disc.EMPTY;
+    } else {
+      throw new IllegalStateException("The game has not been started this cannot be checked");
+    }
+  }
+
+  @Override
+  protected boolean hasValidMoves(Disc playerDisc) {
+    findMoves(discs(playerDisc), discs(opposite(playerDisc)));
+    return !isZero(moves);
+  }
+
+  @Override
+  // moves are listed row by row, the same order SquareBoard produces them in
+  public ArrayList<Position> getPossibleMoves() {
+    ArrayList<Position> possibleMoves = new ArrayList<>();
+    findMoves(discs(currentColor()), discs(oppositeColor()));
+    for (int word = 0; word < words; word++) {
+      long bits = moves[word];
+      while (bits != 0) {
+        int index = word * 64 + Long.numberOfTrailingZeros(bits);
+        possibleMoves.add(geometry.getPosition(index));
+        bits &= bits - 1;
+      }
+    }
+    return possibleMoves;
+  }
+
+  @Override
+  public boolean validMove(Position coor, Disc currentTurn) {
+    return countFlips(coor, currentColor()) > 0;
+  }
+
+  @Override
+  public int checkMove(ReversiReadOnly model, Position move) {
+    if (model != this) {
+      return model.checkMove(model, move);
+    }
+    int captured = countFlips(move, currentColor());
+    if (captured == 0) {
+      throw new IllegalArgumentException("Invalid move.");
+    }
+    return captured;
+  }
+
+  @Override
+  public int getScoreForPlayer(ReversiReadOnly model, Position move, Disc player) {
+    if (model != this) {
+      return model.getScoreForPlayer(model, move, player);
+    }
+    return countFlips(move, player);
+  }
+
+  /**
+   * Builds a map of the board. As the discs live in bit masks rather than cells, this is a
+   * snapshot of the board: changing a returned cell does not change the game.
+   *
+   * @return a map from each square on the board to a cell holding its disc.
+   */
+  @Override
+  public Map<Position, Cell> getMap() {
+    return createCopyOfBoard();
+  }
+
+  @Override
+  public HashMap<Position, Cell> createCopyOfBoard() {
+    HashMap<Position, Cell> copy = new HashMap<Position, Cell>();
+    for (int index = 0; index < cellCount; index++) {
+      copy.put(geometry.getPosition(index), new Cell(readDisc(index)));
+    }
+    return copy;
+  }
+
+  /**
+   * Counts how many discs the given player would capture by playing at the given position.
+   *
+   * @param move   The position being considered.
+   * @param player The player making the move.
+   * @return The number of opposing discs that would be flipped, or 0 if the move is not legal.
+   */
+  @Override
+  public int countFlips(Position move, Disc player) {
+    if (move == null || player == Disc.EMPTY
+            || !onBoard(move.getFirstCoordinate(), move.getSecondCoordinate())) {
+      return 0;
+    }
+    int index = bitIndex(move.getFirstCoordinate(), move.getSecondCoordinate());
+    if (testBit(black, index) || testBit(white, index)) {
+      return 0;
+    }
+    if (!findFlips(index, discs(player), discs(opposite(player)))) {
+      return 0;
+    }
+    return bitCount(flips);
+  }
+
+  @Override
+  public int listMoves(Disc player, int[] moves) {
+    int count = 0;
+    if (player == Disc.EMPTY) {
+      return count;
+    }
+    findMoves(discs(player), discs(opposite(player)));
+    for (int word = 0; word < words; word++) {
+      long bits = this.moves[word];
+      while (bits != 0) {
+        moves[count++] = word * 64 + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Fills the moves mask with every empty square that would capture at least one disc.
+   * Starting from the player's own discs, each direction grows runs of opposing discs one square
+   * per shift; any empty square reached directly after such a run is a legal move.
+   *
+   * @param own The discs of the player to move.
+   * @param opp The discs of their opponent.
+   */
+  private void findMoves(long[] own, long[] opp) {
+    clear(moves);
+    for (int dir = 0; dir < shifts.length; dir++) {
+      shift(own, dir, cur);
+      and(cur, opp);
+      while (!isZero(cur)) {
+        shift(cur, dir, next);
+        for (int word = 0; word < words; word++) {
+          moves[word] |= next[word] & ~(black[word] | white[word]) & full[word];
+          cur[word] = next[word] & opp[word];
+        }
+      }
+    }
+  }
+
+  /**
+   * Fills the flips mask with every disc captured by placing a disc on the given square.
+   *
+   * @param index The square being played.
+   * @param own   The discs of the player to move.
+   * @param opp   The discs of their opponent.
+   * @return True if at least one disc would be captured, otherwise false.
+   */
+  private boolean findFlips(int index, long[] own, long[] opp) {
+    clear(flips);
+    for (int dir = 0; dir < shifts.length; dir++) {
+      clear(cur);
+      setBit(cur, index);
+      clear(run);
+      shift(cur, dir, next);
+      while (intersects(next, opp)) {
+        for (int word = 0; word < words; word++) {
+          run[word] |= next[word];
+        }
+        shift(next, dir, cur);
+        System.arraycopy(cur, 0, next, 0, words);
+      }
+      if (intersects(next, own)) {
+        for (int word = 0; word < words; word++) {
+          flips[word] |= run[word];
+        }
+      }
+    }
+    return !isZero(flips);
+  }
+
+  /**
+   * Moves every disc in the source mask one square in the given direction, dropping any disc
+   * that would leave the board or wrap around an edge.
+   *
+   * @param src The mask to shift.
+   * @param dir The index of the direction to shift in.
+   * @param dst The mask to write the result to, which must not be the source mask.
+   */
+  private void shift(long[] src, int dir, long[] dst) {
+    int amount = shifts[dir];
+    long[] mask = landing[dir];
+    if (words == 1) {
+      dst[0] = (amount > 0 ? src[0] << amount : src[0] >>> -amount) & mask[0];
+      return;
+    }
+    int wordShift = Math.abs(amount) >>> 6;
+    int bitShift = Math.abs(amount) & 63;
+    for (int word = 0; word < words; word++) {
+      long value = 0;
+      if (amount > 0) {
+        int from = word - wordShift;
+        if (from >= 0) {
+          value = src[from] << bitShift;
+          if (bitShift != 0 && from > 0) {
+            value |= src[from - 1] >>> (64 - bitShift);
+          }
+        }
+      } else {
+        int from = word + wordShift;
+        if (from < words) {
+          value = src[from] >>> bitShift;
+          if (bitShift != 0 && from + 1 < words) {
+            value |= src[from + 1] << (64 - bitShift);
+          }
+        }
+      }
+      dst[word] = value & mask[word];
+    }
+  }
+
+  @Override
+  protected Disc readDisc(int index) {
+    if (testBit(black, index)) {
+      return Disc.BLACK;
+    } else if (testBit(white, index)) {
+      return Disc.WHITE;
+    }
+    return Disc.EMPTY;
+  }
+
+  private long[] discs(Disc player) {
+    if (player == Disc.BLACK) {
+      return black;
+    } else if (player == Disc.WHITE) {
+      return white;
+    }
+    throw new IllegalArgumentException("Empty has no discs to move");
+  }
+
+  private static Disc opposite(Disc player) {
+    return player == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+  }
+
+  private boolean onBoard(int x, int y) {
+    return x >= 0 && x < size && y >= 0 && y < size;
+  }
+
+  private int bitIndex(int x, int y) {
+    return y * size + x;
+  }
+
+  private static void setBit(long[] mask, int index) {
+    mask[index >>> 6] |= 1L << (index & 63);
+  }
+
+  private static void clearBit(long[] mask, int index) {
+    mask[index >>> 6] &= ~(1L << (index & 63));
+  }
+
+  private static boolean testBit(long[] mask, int index) {
+    return (mask[index >>> 6] & (1L << (index & 63))) != 0;
+  }
+
+  private static void clear(long[] mask) {
+    for (int word = 0; word < mask.length; word++) {
+      mask[word] = 0;
+    }
+  }
+
+  private static void and(long[] mask, long[] other) {
+    for (int word = 0; word < mask.length; word++) {
+      mask[word] &= other[word];
+    }
+  }
+
+  private static boolean intersects(long[] mask, long[] other) {
+    for (int word = 0; word < mask.length; word++) {
+      if ((mask[word] & other[word]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isZero(long[] mask) {
+    for (long word : mask) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int bitCount(long[] mask) {
+    int count = 0;
+    for (long word : mask) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+}
@@ -40,6 +40,7 @@ public class BoardMock extends AbstractModel {
     compassR.put("se", 1);
     compassR.put("sw", 1);
     playGame();
+    indexCells(Geometry.hex(size));
   }
 
   /**
@@ -74,6 +75,7 @@ public class BoardMock extends AbstractModel {
       Cell newCell = new Cell(originalCell.getContent());
       this.grid.put(coord, newCell);
     }
+    indexCells(Geometry.hex(size));
   }
 
   /**
@@ -0,0 +1,111 @@
+package model;
+
+import java.util.HashMap;
+
+/**
+ * An immutable picture of a game at one moment: the disc on every cell, the player to move and
+ * the position's hash. Taking a snapshot of a board costs the same no matter the board's size,
+ * as a snapshot shares its cells with the board and with every other snapshot of it; the board
+ * copies only the few cells it changes afterwards. Snapshots can therefore be kept around by
+ * views or used to start copies of a game without ever being changed by the game going on.
+ */
+public final class BoardSnapshot {
+  private final Geometry geometry;
+  private final Turn turn;
+  private final long positionHash;
+  private final int shift;
+  private final DiscTrie.Node root;
+
+  /**
+   * Wraps a frozen root of a board's disc trie.
+   *
+   * @param geometry     The geometry of the board.
+   * @param turn         The player to move.
+   * @param positionHash The hash of the position.
+   * @param shift        The shift of the root level of the trie.
+   * @param root         The frozen root of the trie.
+   */
+  BoardSnapshot(Geometry geometry, Turn turn, long positionHash, int shift, DiscTrie.Node root) {
+    this.geometry = geometry;
+    this.turn = turn;
+    this.positionHash = positionHash;
+    this.shift = shift;
+    this.root = root;
+  }
+
+  /**
+   * Retrieves the geometry of the board the snapshot was taken of.
+   *
+   * @return The geometry of the board.
+   */
+  public Geometry getGeometry() {
+    return geometry;
+  }
+
+  /**
+   * Retrieves the player whose turn it was when the snapshot was taken.
+   *
+   * @return The player to move.
+   */
+  public Turn getTurn() {
+    return turn;
+  }
+
+  /**
+   * Retrieves the Zobrist hash of the position the snapshot holds.
+   *
+   * @return The hash of the position.
+   */
+  public long getPositionHash() {
+    return positionHash;
+  }
+
+  /**
+   * Retrieves the disc on the cell with the given geometry index.
+   *
+   * @param index The index of the cell.
+   * @return The disc on the cell.
+   */
+  public Disc getDisc(int index) {
+    return DiscTrie.get(root, shift, index);
+  }
+
+  /**
+   * Retrieves the disc at the given coordinates.
+   *
+   * @param first  The first coordinate of the cell.
+   * @param second The second coordinate of the cell.
+   * @return The disc on the cell.
+   * @throws IllegalArgumentException If the cell doesn't exist on the board.
+   */
+  public Disc getDiscAt(int first, int second) {
+    int index = geometry.index(first, second);
+    if (index < 0) {
+      throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
+    }
+    return getDisc(index);
+  }
+
+  /**
+   * Builds a map of the snapshot in the same form as {@link Reversi#createCopyOfBoard()}.
+   *
+   * @return A map from each position on the board to a new cell holding its disc.
+   */
+  public HashMap<Position, Cell> toMap() {
+    HashMap<Position, Cell> map = new HashMap<Position, Cell>();
+    for (int index = 0; index < geometry.getCellCount(); index++) {
+      map.put(geometry.getPosition(index), new Cell(getDisc(index)));
+    }
+    return map;
+  }
+
+  /**
+   * Starts a disc trie from this snapshot for a board being built from it, so that the board
+   * shares the snapshot's cells until it changes them.
+   *
+   * @return A new trie holding the snapshot's discs.
+   */
+  DiscTrie toTrie() {
+    return new DiscTrie(shift, root);
+  }
+}
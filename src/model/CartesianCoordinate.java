@@ -1,13 +1,12 @@
 package model;
 
-import java.util.ArrayList;
-
 /**
  * Represents a Cartesian coordinate with x and y values.
  */
 public class CartesianCoordinate implements Position{
   private final int x;
   private final int y;
+  private final int hash;
 
   /**
    * Constructs a new CartesianCoordinate with the given x and y values.
@@ -18,6 +17,7 @@ public class CartesianCoordinate implements Position{
   public CartesianCoordinate(int x, int y) {
     this.x = x;
     this.y = y;
+    this.hash = x * 31 + y * 26;
   }
 
   @Override
@@ -46,44 +46,29 @@ public class CartesianCoordinate implements Position{
   }
 
   @Override
+  // looks the square up in the corner flags the board's geometry worked out once
   public boolean isCorner(int size) {
-    ArrayList<CartesianCoordinate> corners = new ArrayList<CartesianCoordinate>();
-    corners.add(new CartesianCoordinate(0, 0));
-    corners.add(new CartesianCoordinate(0, size - 1));
-    corners.add(new CartesianCoordinate(size - 1, 0));
-    corners.add(new CartesianCoordinate(size - 1, size - 1));
-
-
-    return corners.contains(new CartesianCoordinate
-            (this.getFirstCoordinate(), this.getSecondCoordinate()));
+    if (size <= 0) {
+      return false;
+    }
+    Geometry geometry = Geometry.square(size);
+    int index = geometry.index(x, y);
+    return index >= 0 && geometry.isCorner(index);
   }
 
   @Override
   public boolean isNextToCorner(int size) {
-    ArrayList<CartesianCoordinate> notCorners = new ArrayList<CartesianCoordinate>();
-    notCorners.add(new CartesianCoordinate(0,1));
-    notCorners.add(new CartesianCoordinate(1,0));
-    notCorners.add(new CartesianCoordinate(1,1));
-
-    notCorners.add(new CartesianCoordinate(0,size - 2));
-    notCorners.add(new CartesianCoordinate(1,size - 2));
-    notCorners.add(new CartesianCoordinate(1,size - 1));
-
-    notCorners.add(new CartesianCoordinate(size - 2,0));
-    notCorners.add(new CartesianCoordinate(size - 2,1));
-    notCorners.add(new CartesianCoordinate(size - 1,1));
-
-    notCorners.add(new CartesianCoordinate(size - 1,size - 2));
-    notCorners.add(new CartesianCoordinate(size - 2,size - 2));
-    notCorners.add(new CartesianCoordinate(size - 2,size - 2));
-
-    return notCorners.contains(new CartesianCoordinate
-            (this.getFirstCoordinate(), this.getSecondCoordinate()));
+    if (size <= 0) {
+      return false;
+    }
+    Geometry geometry = Geometry.square(size);
+    int index = geometry.index(x, y);
+    return index >= 0 && geometry.isNextToCorner(index);
   }
 
   @Override
   public int hashCode() {
-    return x * 31 + y * 26;
+    return hash;
   }
 
   @Override
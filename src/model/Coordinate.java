@@ -1,7 +1,5 @@
 package model;
 
-import java.util.ArrayList;
-
 /**
  * Represents a coordinate in a hexagonal grid system.
  * In a hexagonal coordinate system, three axes are used: q, r, and s.
@@ -11,6 +9,7 @@ public class Coordinate implements Position{
   private final int q;
   private final int r;
   private final int s;
+  private final int hash;
 
   /**
    * Constructs a new Coordinate with the given q and r values.
@@ -23,6 +22,7 @@ public class Coordinate implements Position{
     this.q = q;
     this.r = r;
     this.s = -q - r;
+    this.hash = r * 31 + q * 261 + s * 15;
   }
 
   /**
@@ -65,50 +65,40 @@ public class Coordinate implements Position{
     return r;
   }
 
+  /**
+   * Checks if this coordinate is one of the six corners of a hexagonal board of the given size,
+   * by looking up the corner flags the board's {@link Geometry} worked out once.
+   *
+   * @param size The size of the board.
+   * @return True if this coordinate is a corner, false otherwise.
+   */
   @Override
   public boolean isCorner(int size) {
-    ArrayList<Coordinate> corners = new ArrayList<Coordinate>();
-    corners.add(new Coordinate(0, 1 - size));
-    corners.add(new Coordinate(1 - size, 0));
-    corners.add(new Coordinate(1 - size, size - 1));
-    corners.add(new Coordinate(size - 1, 1 - size));
-    corners.add(new Coordinate(size - 1, 0));
-    corners.add(new Coordinate(0, size - 1));
-
-    return corners.contains(new Coordinate(this.getFirstCoordinate(), this.getSecondCoordinate()));
+    if (size <= 0) {
+      return false;
+    }
+    Geometry geometry = Geometry.hex(size);
+    int index = geometry.index(q, r);
+    return index >= 0 && geometry.isCorner(index);
   }
 
+  /**
+   * Checks if this coordinate touches one of the corners of a hexagonal board of the given size,
+   * by looking up the flags the board's {@link Geometry} worked out once.
+   *
+   * @param size The size of the board.
+   * @return True if this coordinate is next to a corner, false otherwise.
+   */
   @Override
   public boolean isNextToCorner(int size) {
-    ArrayList<Coordinate> notCorners = new ArrayList<Coordinate>();
-    notCorners.add(new Coordinate(1, 1 - size));
-    notCorners.add(new Coordinate(0, 2 - size));
-    notCorners.add(new Coordinate(-1, 2 - size));
-
-    notCorners.add(new Coordinate(2 - size, -1));
-    notCorners.add(new Coordinate(2 - size, 0));
-    notCorners.add(new Coordinate(1 - size, 1));
-
-    notCorners.add(new Coordinate(1 - size, size - 2));
-    notCorners.add(new Coordinate(2 - size, size - 2));
-    notCorners.add(new Coordinate(2 - size, size - 1));
-
-    notCorners.add(new Coordinate(-1, size - 1));
-    notCorners.add(new Coordinate(0, size - 2));
-    notCorners.add(new Coordinate(1, size - 2));
-
-    notCorners.add(new Coordinate(size - 2, 1));
-    notCorners.add(new Coordinate(size - 2, 0));
-    notCorners.add(new Coordinate(size - 1, -1));
-
-    notCorners.add(new Coordinate(size - 1, 2 - size));
-    notCorners.add(new Coordinate(size - 2, 2 - size));
-    notCorners.add(new Coordinate(size - 2, 1 - size));
-
-    return notCorners.contains(new Coordinate(this.getFirstCoordinate(), this.getSecondCoordinate()));
+    if (size <= 0) {
+      return false;
+    }
+    Geometry geometry = Geometry.hex(size);
+    int index = geometry.index(q, r);
+    return index >= 0 && geometry.isNextToCorner(index);
   }
 
-
   /**
    * Retrieves the s-axis value of this coordinate.
    *
@@ -120,12 +110,13 @@ public class Coordinate implements Position{
   }
 
   /**
-   * Generates a hash code for this coordinate based on its q, r, and s values.
+   * Generates a hash code for this coordinate based on its q, r, and s values, worked out once
+   * when the coordinate is made.
    *
    * @return The generated hash code.
    */
   @Override
   public int hashCode() {
-    return r * 31 + q * 261 + s * 15;
+    return hash;
   }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package model;
+
+/**
+ * Listens to every change of a disc on a board, however it is made: placing a disc, making a
+ * move, flipping the discs it captures, or taking a move back. Meant for keeping something
+ * computed from the discs up to date one cell at a time, such as the pattern codes of an
+ * evaluation, rather than for views, which are told of whole moves through their controllers.
+ */
+public interface DiscListener {
+
+  /**
+   * Called after the disc on a cell has changed.
+   *
+   * @param index    The geometry index of the cell.
+   * @param previous The disc that was on the cell.
+   * @param disc     The disc now on the cell.
+   */
+  void discChanged(int index, Disc previous, Disc disc);
+}
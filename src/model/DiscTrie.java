@@ -0,0 +1,156 @@
+package model;
+
+/**
+ * A persistent array of discs indexed by geometry cell, stored as a trie of 32-wide chunks.
+ * Freezing the trie hands out its current root in constant time. That root is never changed
+ * again: later writes copy only the chunks on the path to the changed cell and share every other
+ * chunk with the frozen roots. Chunks created since the last freeze belong to the trie and are
+ * written in place, so a run of writes between snapshots copies each path at most once.
+ */
+final class DiscTrie {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private static final byte EMPTY = 0;
+  private static final byte BLACK = 1;
+  private static final byte WHITE = 2;
+
+  /**
+   * A chunk of the trie: either a leaf holding up to 32 discs or a branch holding up to 32
+   * chunks. A chunk may only be written in place by the trie whose owner token it carries.
+   */
+  static final class Node {
+    private final Object owner;
+    private final Node[] children;
+    private final byte[] discs;
+
+    private Node(Object owner, Node[] children, byte[] discs) {
+      this.owner = owner;
+      this.children = children;
+      this.discs = discs;
+    }
+  }
+
+  private final int shift;
+  private Node root;
+  private Object owner;
+
+  /**
+   * Builds a trie of empty cells large enough for the given number of cells.
+   *
+   * @param cellCount The number of cells on the board.
+   */
+  DiscTrie(int cellCount) {
+    int levels = 0;
+    while (((long) WIDTH << (levels * BITS)) < cellCount) {
+      levels++;
+    }
+    this.shift = levels * BITS;
+    this.owner = new Object();
+    this.root = build(shift, 0, cellCount);
+  }
+
+  /**
+   * Starts a trie from a frozen root, sharing every chunk with it until they are written.
+   *
+   * @param shift The shift of the root level, as given by {@link #getShift()}.
+   * @param root  The frozen root to start from.
+   */
+  DiscTrie(int shift, Node root) {
+    this.shift = shift;
+    this.owner = new Object();
+    this.root = root;
+  }
+
+  private Node build(int level, int start, int cellCount) {
+    if (level == 0) {
+      return new Node(owner, null, new byte[WIDTH]);
+    }
+    Node[] children = new Node[WIDTH];
+    int span = 1 << level;
+    for (int slot = 0; slot < WIDTH && start + slot * span < cellCount; slot++) {
+      children[slot] = build(level - BITS, start + slot * span, cellCount);
+    }
+    return new Node(owner, children, null);
+  }
+
+  /**
+   * Retrieves the bit shift of the top level of the trie, needed to read a frozen root.
+   *
+   * @return The shift of the root level.
+   */
+  int getShift() {
+    return shift;
+  }
+
+  /**
+   * Sets the disc on a cell, copying any chunk on the way that a frozen root still shares.
+   *
+   * @param index The geometry index of the cell.
+   * @param disc  The disc to put on the cell.
+   */
+  void set(int index, Disc disc) {
+    root = editable(root);
+    Node node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      int slot = (index >>> level) & MASK;
+      Node child = editable(node.children[slot]);
+      node.children[slot] = child;
+      node = child;
+    }
+    node.discs[index & MASK] = toByte(disc);
+  }
+
+  private Node editable(Node node) {
+    if (node.owner == owner) {
+      return node;
+    }
+    if (node.discs != null) {
+      return new Node(owner, null, node.discs.clone());
+    }
+    return new Node(owner, node.children.clone(), null);
+  }
+
+  /**
+   * Freezes the current contents of the trie and returns their root. The trie takes a new owner
+   * token, so none of the chunks reachable from the returned root are written again.
+   *
+   * @return The frozen root.
+   */
+  Node freeze() {
+    owner = new Object();
+    return root;
+  }
+
+  /**
+   * Reads the disc on a cell from a frozen root.
+   *
+   * @param root  The root to read from.
+   * @param shift The shift of the root level.
+   * @param index The geometry index of the cell.
+   * @return The disc on the cell.
+   */
+  static Disc get(Node root, int shift, int index) {
+    Node node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = node.children[(index >>> level) & MASK];
+    }
+    byte disc = node.discs[index & MASK];
+    if (disc == BLACK) {
+      return Disc.BLACK;
+    } else if (disc == WHITE) {
+      return Disc.WHITE;
+    }
+    return Disc.EMPTY;
+  }
+
+  private static byte toByte(Disc disc) {
+    if (disc == Disc.BLACK) {
+      return BLACK;
+    } else if (disc == Disc.WHITE) {
+      return WHITE;
+    }
+    return EMPTY;
+  }
+}
@@ -0,0 +1,332 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A hexagonal game of Reversi that stores its cells in a flat byte array instead of a map keyed
+ * by {@link Coordinate}. Axial (q, r) coordinates are turned into an array index once through the
+ * board's {@link Geometry}, and captures are found by scanning its precomputed rays, so
+ * making a move, reading a disc and placing a disc never hash or allocate a coordinate.
+ * Plays by exactly the same rules as {@link Board}.
+ */
+public class FlatHexBoard extends AbstractModel {
+  private static final byte EMPTY = 0;
+  private static final byte BLACK = 1;
+  private static final byte WHITE = 2;
+
+  private final byte[] discs;
+
+  /**
+   * Initializes a new game board of the specified size.
+   *
+   * @param size The size of the board.
+   */
+  public FlatHexBoard(int size) {
+    super(size);
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size must be positive");
+    }
+    this.geometry = Geometry.hex(size);
+    this.discs = new byte[geometry.getCellCount()];
+    playGame();
+  }
+
+  /**
+   * Initializes a new game board of the specified size, and overwrites the board using a
+   * given map of disc placements.
+   *
+   * @param size       The size of the board.
+   * @param grid1      The hashmap of discs to be overwritten onto the old grid.
+   * @param whoseTuren The turn that's to be instantiated in the new game.
+   */
+  public FlatHexBoard(int size, HashMap<Position, Cell> grid1, Turn whoseTuren) {
+    this(size);
+    this.whoseTurn = whoseTuren;
+    for (Position coord : grid1.keySet()) {
+      placeDisc(coord.getFirstCoordinate(), coord.getSecondCoordinate(),
+              grid1.get(coord).getContent());
+    }
+    countDiscs();
+  }
+
+  /**
+   * Initializes a new game board holding the position in a snapshot, sharing the snapshot's cells
+   * so that copying a game through a snapshot stays cheap.
+   *
+   * @param snapshot The snapshot of a hexagonal board to start from.
+   * @throws IllegalArgumentException If the snapshot is not of a hexagonal board.
+   */
+  public FlatHexBoard(BoardSnapshot snapshot) {
+    this(snapshot.getGeometry().getSize());
+    restore(snapshot);
+  }
+
+  /**
+   * Sets up the starting pieces for a hexagonal game of reversi.
+   */
+  private void playGame() {
+    if (gameState == GameState.PRE) {
+      gameState = GameState.INPROGRESS;
+      discs[geometry.index(1, 0)] = BLACK;
+      discs[geometry.index(1, -1)] = WHITE;
+      discs[geometry.index(0, -1)] = BLACK;
+      discs[geometry.index(-1, 0)] = WHITE;
+      discs[geometry.index(-1, 1)] = BLACK;
+      discs[geometry.index(0, 1)] = WHITE;
+      countDiscs();
+    } else {
+      throw new IllegalStateException("A game has already been started");
+    }
+
+    notifyObservers();
+  }
+
+  @Override
+  public void makeMove(Position dest) {
+    if (gameState != GameState.PRE) {
+      if (dest == null) {
+        throw new IllegalArgumentException("Can't pass in a null coordinate");
+      }
+      int index = geometry.index(dest.getFirstCoordinate(), dest.getSecondCoordinate());
+      if (index < 0) {
+        throw new IllegalArgumentException("This space does not exist on the board");
+      }
+      if (discs[index] != EMPTY) {
+        throw new IllegalArgumentException("This space is already occupied");
+      }
+
+      byte own = toByte(currentColor());
+      int flipped = countFlips(index, own);
+      if (flipped == 0) {
+        throw new IllegalArgumentException("Invalid move.");
+      }
+      history.push(index, whoseTurn, consecPasses, gameState);
+      for (int dir = 0; dir < geometry.getDirectionCount(); dir++) {
+        int[] ray = geometry.ray(index, dir);
+        int run = countRun(ray, own);
+        for (int step = 0; step < run; step++) {
+          discs[ray[step]] = own;
+          recordFlip(ray[step]);
+        }
+      }
+      discs[index] = own;
+      countMove(index, currentColor(), flipped);
+      this.advanceTurn();
+      this.consecPasses = 0;
+      invalidateGameOver();
+    } else {
+      throw new IllegalStateException("The game has not been started yet no move can be made");
+    }
+
+    notifyObservers();
+    notifyTurnChange();
+  }
+
+  @Override
+  public void placeDisc(int q, int r, Disc disc) {
+    if (gameState != GameState.PRE) {
+      writeDisc(cellIndex(q, r), disc);
+    } else {
+      throw new IllegalStateException("The game has not been started yet this cannot be done");
+    }
+  }
+
+  @Override
+  protected Disc readDisc(int index) {
+    return toDisc(discs[index]);
+  }
+
+  @Override
+  protected void storeDisc(int index, Disc disc) {
+    discs[index] = toByte(disc);
+  }
+
+  @Override
+  public Disc getDiscAt(int q, int r) {
+    if (gameState != GameState.PRE) {
+      return toDisc(discs[cellIndex(q, r)]);
+    } else {
+      throw new IllegalStateException("The game has not been started yet this cannot be done");
+    }
+  }
+
+  @Override
+  public boolean isCellEmpty(int q, int r) {
+    if (gameState != GameState.PRE) {
+      return discs[cellIndex(q, r)] == EMPTY;
+    } else {
+      throw new IllegalStateException("The game has not been started this cannot be checked");
+    }
+  }
+
+  @Override
+  protected boolean hasValidMoves(Disc playerDisc) {
+    byte own = toByte(playerDisc);
+    for (int index = 0; index < discs.length; index++) {
+      if (discs[index] == EMPTY && countFlips(index, own) > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public ArrayList<Position> getPossibleMoves() {
+    ArrayList<Position> possibleMoves = new ArrayList<>();
+    byte own = toByte(currentColor());
+    for (int index = 0; index < discs.length; index++) {
+      if (discs[index] == EMPTY && countFlips(index, own) > 0) {
+        possibleMoves.add(geometry.getPosition(index));
+      }
+    }
+    return possibleMoves;
+  }
+
+  @Override
+  public boolean validMove(Position coor, Disc currentTurn) {
+    return countFlips(coor, currentColor()) > 0;
+  }
+
+  @Override
+  public int checkMove(ReversiReadOnly model, Position move) {
+    if (model != this) {
+      return model.checkMove(model, move);
+    }
+    return countFlips(move, currentColor());
+  }
+
+  @Override
+  public int getScoreForPlayer(ReversiReadOnly model, Position move, Disc player) {
+    if (model != this) {
+      return model.getScoreForPlayer(model, move, player);
+    }
+    return countFlips(move, player);
+  }
+
+  /**
+   * Builds a map of the board. As the discs live in an array rather than cells, this is a
+   * snapshot of the board: changing a returned cell does not change the game.
+   *
+   * @return a map from each hexagon on the board to a cell holding its disc.
+   */
+  @Override
+  public Map<Position, Cell> getMap() {
+    return createCopyOfBoard();
+  }
+
+  @Override
+  public HashMap<Position, Cell> createCopyOfBoard() {
+    HashMap<Position, Cell> copy = new HashMap<Position, Cell>();
+    for (int index = 0; index < discs.length; index++) {
+      copy.put(geometry.getPosition(index), new Cell(toDisc(discs[index])));
+    }
+    return copy;
+  }
+
+  /**
+   * Counts the discs the given player would capture by playing at a position, without making
+   * the move.
+   *
+   * @param move   The position being considered.
+   * @param player The player making the move.
+   * @return The number of discs that would be flipped, or 0 if the move is not legal.
+   */
+  @Override
+  public int countFlips(Position move, Disc player) {
+    if (move == null || player == Disc.EMPTY) {
+      return 0;
+    }
+    int index = geometry.index(move.getFirstCoordinate(), move.getSecondCoordinate());
+    if (index < 0 || discs[index] != EMPTY) {
+      return 0;
+    }
+    return countFlips(index, toByte(player));
+  }
+
+  @Override
+  public int listMoves(Disc player, int[] moves) {
+    int count = 0;
+    if (player == Disc.EMPTY) {
+      return count;
+    }
+    byte own = toByte(player);
+    for (int index = 0; index < discs.length; index++) {
+      if (discs[index] == EMPTY && captures(index, own)) {
+        moves[count++] = index;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks whether playing the given color on a cell captures anything, stopping at the first
+   * direction that does.
+   *
+   * @param index The cell being played.
+   * @param own   The color being played.
+   * @return True if at least one disc would be flipped, otherwise false.
+   */
+  private boolean captures(int index, byte own) {
+    for (int dir = 0; dir < geometry.getDirectionCount(); dir++) {
+      if (countRun(geometry.ray(index, dir), own) > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts the discs captured in every direction by playing the given color on a cell.
+   *
+   * @param index The cell being played.
+   * @param own   The color being played.
+   * @return The total number of discs that would be flipped.
+   */
+  private int countFlips(int index, byte own) {
+    int total = 0;
+    for (int dir = 0; dir < geometry.getDirectionCount(); dir++) {
+      total += countRun(geometry.ray(index, dir), own);
+    }
+    return total;
+  }
+
+  /**
+   * Measures the run of opposing discs at the start of a ray that the given color would capture.
+   *
+   * @param ray The cells along the ray, nearest first.
+   * @param own The color being played.
+   * @return The length of the run of opposing discs ended by one of the player's own discs, or 0
+   *     if the run reaches an empty cell or the edge of the board first.
+   */
+  private int countRun(int[] ray, byte own) {
+    for (int step = 0; step < ray.length; step++) {
+      byte cell = discs[ray[step]];
+      if (cell == own) {
+        return step;
+      } else if (cell == EMPTY) {
+        return 0;
+      }
+    }
+    return 0;
+  }
+
+  private static byte toByte(Disc disc) {
+    if (disc == Disc.BLACK) {
+      return BLACK;
+    } else if (disc == Disc.WHITE) {
+      return WHITE;
+    }
+    return EMPTY;
+  }
+
+  private static Disc toDisc(byte cell) {
+    if (cell == BLACK) {
+      return Disc.BLACK;
+    } else if (cell == WHITE) {
+      return Disc.WHITE;
+    }
+    return Disc.EMPTY;
+  }
+}
@@ -0,0 +1,403 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes the shape of a Reversi board of a given size. Every cell on the board is given a
+ * dense int index once, along with a table of each cell's neighbor in every capturing direction
+ * and the full ray of cells running from it in that direction, so that boards can walk the grid
+ * with plain array lookups instead of building a new coordinate for every step. Each geometry
+ * also holds the Zobrist keys that positions on it are hashed with. Geometries are immutable and
+ * built once per board shape and size, then shared by every game of that size.
+ */
+public final class Geometry {
+
+  // changes in the q coordinate for the six hexagonal capturing directions: east, west, ne, nw,
+  // se and sw
+  private static final int[] HEX_DQ = {1, -1, 1, 0, 0, -1};
+  // changes in the r coordinate for the six hexagonal capturing directions
+  private static final int[] HEX_DR = {0, 0, -1, -1, 1, 1};
+
+  // changes in the x coordinate for the eight square capturing directions: left, right, up, down,
+  // ne, nw, se and sw
+  private static final int[] SQUARE_DX = {-1, 1, 0, 0, 1, -1, 1, -1};
+  // changes in the y coordinate for the eight square capturing directions
+  private static final int[] SQUARE_DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+  private static final Map<Integer, Geometry> HEX_GEOMETRIES = new ConcurrentHashMap<>();
+  private static final Map<Integer, Geometry> SQUARE_GEOMETRIES = new ConcurrentHashMap<>();
+
+  private final boolean hex;
+  private final int size;
+  private final int min;
+  private final int span;
+  private final int cellCount;
+  private final int directionCount;
+  private final int[] firstCoordinates;
+  private final int[] secondCoordinates;
+  // maps (first - min) * span + (second - min) to a cell index, or -1 off the board
+  private final int[] lookup;
+  // neighbors[index * directionCount + dir] is the next cell in that direction, or -1
+  private final int[] neighbors;
+  // rays[index * directionCount + dir] lists every cell from the neighbor in that direction to
+  // the edge of the board, nearest first
+  private final int[][] rays;
+  // zobristKeys[index * 2] and zobristKeys[index * 2 + 1] are the random keys of a black and a
+  // white disc on that cell
+  private final long[] zobristKeys;
+  private final long turnKey;
+  // the one shared position object for each cell, handed out instead of building new ones
+  private final Position[] positions;
+  private final boolean[] corners;
+  private final boolean[] nextToCorners;
+
+  /**
+   * Builds the geometry of a board whose cells lie within a square range of coordinates.
+   *
+   * @param size  The size of the board.
+   * @param min   The smallest coordinate value on the board.
+   * @param max   The largest coordinate value on the board.
+   * @param dq    The change in the first coordinate for each capturing direction.
+   * @param dr    The change in the second coordinate for each capturing direction.
+   * @param hex   True if cells must also satisfy the hexagonal constraint |q + r| <= max.
+   */
+  private Geometry(int size, int min, int max, int[] dq, int[] dr, boolean hex) {
+    this.hex = hex;
+    this.size = size;
+    this.min = min;
+    this.span = max - min + 1;
+    this.directionCount = dq.length;
+    this.lookup = new int[span * span];
+
+    int count = 0;
+    int[] first = new int[span * span];
+    int[] second = new int[span * span];
+    // cells are numbered row by row, from the top row down and left to right within each row
+    for (int row = min; row <= max; row++) {
+      for (int col = min; col <= max; col++) {
+        int slot = (col - min) * span + (row - min);
+        if (hex && Math.abs(col + row) > max) {
+          lookup[slot] = -1;
+          continue;
+        }
+        lookup[slot] = count;
+        first[count] = col;
+        second[count] = row;
+        count++;
+      }
+    }
+    this.cellCount = count;
+    this.firstCoordinates = new int[count];
+    this.secondCoordinates = new int[count];
+    System.arraycopy(first, 0, firstCoordinates, 0, count);
+    System.arraycopy(second, 0, secondCoordinates, 0, count);
+
+    this.neighbors = new int[count * directionCount];
+    for (int index = 0; index < count; index++) {
+      for (int dir = 0; dir < directionCount; dir++) {
+        neighbors[index * directionCount + dir] =
+                index(firstCoordinates[index] + dq[dir], secondCoordinates[index] + dr[dir]);
+      }
+    }
+
+    this.rays = new int[count * directionCount][];
+    int[] path = new int[span];
+    for (int index = 0; index < count; index++) {
+      for (int dir = 0; dir < directionCount; dir++) {
+        int length = 0;
+        for (int next = neighbor(index, dir); next >= 0; next = neighbor(next, dir)) {
+          path[length++] = next;
+        }
+        int[] ray = new int[length];
+        System.arraycopy(path, 0, ray, 0, length);
+        rays[index * directionCount + dir] = ray;
+      }
+    }
+
+    // the keys are drawn from a fixed seed for each shape and size, so a position hashes the same
+    // in every run and hashes can be stored alongside saved games
+    long seed = size * 2L + (hex ? 1 : 0);
+    this.zobristKeys = new long[count * 2];
+    for (int key = 0; key < zobristKeys.length; key++) {
+      seed += 0x9E3779B97F4A7C15L;
+      zobristKeys[key] = mix(seed);
+    }
+    seed += 0x9E3779B97F4A7C15L;
+    this.turnKey = mix(seed);
+
+    this.positions = new Position[count];
+    for (int index = 0; index < count; index++) {
+      if (hex) {
+        positions[index] = new Coordinate(firstCoordinates[index], secondCoordinates[index]);
+      } else {
+        positions[index] = new CartesianCoordinate(firstCoordinates[index],
+                secondCoordinates[index]);
+      }
+    }
+    this.corners = new boolean[count];
+    this.nextToCorners = new boolean[count];
+    if (hex) {
+      markHexCorners();
+    } else {
+      markSquareCorners();
+    }
+  }
+
+  /**
+   * Flags the six corners of a hexagonal board and the three cells touching each of them.
+   */
+  private void markHexCorners() {
+    int[][] cornerCells = {{0, 1 - size}, {1 - size, 0}, {1 - size, size - 1},
+        {size - 1, 1 - size}, {size - 1, 0}, {0, size - 1}};
+    int[][] nextCells = {{1, 1 - size}, {0, 2 - size}, {-1, 2 - size},
+        {2 - size, -1}, {2 - size, 0}, {1 - size, 1},
+        {1 - size, size - 2}, {2 - size, size - 2}, {2 - size, size - 1},
+        {-1, size - 1}, {0, size - 2}, {1, size - 2},
+        {size - 2, 1}, {size - 2, 0}, {size - 1, -1},
+        {size - 1, 2 - size}, {size - 2, 2 - size}, {size - 2, 1 - size}};
+    mark(corners, cornerCells);
+    mark(nextToCorners, nextCells);
+  }
+
+  /**
+   * Flags the four corners of a square board and the squares listed as next to them, which are
+   * the same squares {@link CartesianCoordinate} has always reported.
+   */
+  private void markSquareCorners() {
+    int[][] cornerCells = {{0, 0}, {0, size - 1}, {size - 1, 0}, {size - 1, size - 1}};
+    int[][] nextCells = {{0, 1}, {1, 0}, {1, 1},
+        {0, size - 2}, {1, size - 2}, {1, size - 1},
+        {size - 2, 0}, {size - 2, 1}, {size - 1, 1},
+        {size - 1, size - 2}, {size - 2, size - 2}};
+    mark(corners, cornerCells);
+    mark(nextToCorners, nextCells);
+  }
+
+  private void mark(boolean[] flags, int[][] cellsToMark) {
+    for (int[] cell : cellsToMark) {
+      int index = index(cell[0], cell[1]);
+      if (index >= 0) {
+        flags[index] = true;
+      }
+    }
+  }
+
+  /**
+   * Scrambles a counter into a well-distributed 64-bit value (the SplitMix64 finalizer).
+   *
+   * @param value The value to scramble.
+   * @return The scrambled value.
+   */
+  private static long mix(long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns the shared geometry of a hexagonal board with the given size, building it the first
+   * time that size is asked for. Cells are indexed by their axial (q, r) coordinates.
+   *
+   * @param size The number of hexagons along each side of the board.
+   * @return The geometry of a hexagonal board of that size.
+   * @throws IllegalArgumentException If the size is not positive.
+   */
+  public static Geometry hex(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size must be positive");
+    }
+    return HEX_GEOMETRIES.computeIfAbsent(size,
+        s -> new Geometry(s, 1 - s, s - 1, HEX_DQ, HEX_DR, true));
+  }
+
+  /**
+   * Returns the shared geometry of a square board with the given size, building it the first
+   * time that size is asked for. Cells are indexed by their (x, y) coordinates as
+   * {@code y * size + x}.
+   *
+   * @param size The number of squares along each side of the board.
+   * @return The geometry of a square board of that size.
+   * @throws IllegalArgumentException If the size is not positive.
+   */
+  public static Geometry square(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size must be positive");
+    }
+    return SQUARE_GEOMETRIES.computeIfAbsent(size,
+        s -> new Geometry(s, 0, s - 1, SQUARE_DX, SQUARE_DY, false));
+  }
+
+  /**
+   * Checks whether this geometry describes a hexagonal board rather than a square one.
+   *
+   * @return True for a hexagonal board, false for a square board.
+   */
+  public boolean isHex() {
+    return hex;
+  }
+
+  /**
+   * Retrieves the size of the board this geometry describes.
+   *
+   * @return The size of the board.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Retrieves the number of cells on the board.
+   *
+   * @return The number of cells, which is one more than the largest cell index.
+   */
+  public int getCellCount() {
+    return cellCount;
+  }
+
+  /**
+   * Retrieves the number of capturing directions a disc can be flanked from.
+   *
+   * @return The number of directions.
+   */
+  public int getDirectionCount() {
+    return directionCount;
+  }
+
+  /**
+   * Finds the index of the cell at the given coordinates.
+   *
+   * @param first  The first coordinate of the cell.
+   * @param second The second coordinate of the cell.
+   * @return The index of the cell, or -1 if the coordinates are not on the board.
+   */
+  public int index(int first, int second) {
+    int col = first - min;
+    int row = second - min;
+    if (col < 0 || col >= span || row < 0 || row >= span) {
+      return -1;
+    }
+    return lookup[col * span + row];
+  }
+
+  /**
+   * Retrieves the first coordinate of the cell with the given index.
+   *
+   * @param index The index of the cell.
+   * @return The first coordinate of that cell.
+   */
+  public int getFirstCoordinate(int index) {
+    return firstCoordinates[index];
+  }
+
+  /**
+   * Retrieves the second coordinate of the cell with the given index.
+   *
+   * @param index The index of the cell.
+   * @return The second coordinate of that cell.
+   */
+  public int getSecondCoordinate(int index) {
+    return secondCoordinates[index];
+  }
+
+  /**
+   * Retrieves the position of the cell with the given index, as the coordinate type the board
+   * keys its cells by: a {@link Coordinate} on a hexagonal board and a
+   * {@link CartesianCoordinate} on a square board. The same instance is returned every time, so
+   * boards and strategies can hand positions around without building new ones.
+   *
+   * @param index The index of the cell.
+   * @return The shared position of that cell.
+   */
+  public Position getPosition(int index) {
+    return positions[index];
+  }
+
+  /**
+   * Retrieves the shared position of the cell at the given coordinates.
+   *
+   * @param first  The first coordinate of the cell.
+   * @param second The second coordinate of the cell.
+   * @return The shared position of that cell.
+   * @throws IllegalArgumentException If the coordinates are not on the board.
+   */
+  public Position position(int first, int second) {
+    int index = index(first, second);
+    if (index < 0) {
+      throw new IllegalArgumentException("This cell doesn't exist in the above grid ");
+    }
+    return positions[index];
+  }
+
+  /**
+   * Checks whether the cell with the given index is a corner of the board.
+   *
+   * @param index The index of the cell.
+   * @return True if the cell is a corner, false otherwise.
+   */
+  public boolean isCorner(int index) {
+    return corners[index];
+  }
+
+  /**
+   * Checks whether the cell with the given index is next to a corner of the board.
+   *
+   * @param index The index of the cell.
+   * @return True if the cell is next to a corner, false otherwise.
+   */
+  public boolean isNextToCorner(int index) {
+    return nextToCorners[index];
+  }
+
+  /**
+   * Finds the next cell over from a cell in the given direction.
+   *
+   * @param index The index of the starting cell.
+   * @param dir   The direction to step in, between 0 and the direction count.
+   * @return The index of the neighboring cell, or -1 if the step leaves the board.
+   */
+  public int neighbor(int index, int dir) {
+    return neighbors[index * directionCount + dir];
+  }
+
+  /**
+   * Retrieves every cell in a straight line from a cell to the edge of the board in the given
+   * direction, nearest first. The returned array is shared by every game using this geometry
+   * and must not be modified.
+   *
+   * @param index The index of the starting cell, which is not itself part of the ray.
+   * @param dir   The direction of the ray, between 0 and the direction count.
+   * @return The indexes of the cells along the ray.
+   */
+  public int[] ray(int index, int dir) {
+    return rays[index * directionCount + dir];
+  }
+
+  /**
+   * Retrieves the Zobrist key of a disc on a cell. A position's hash is the exclusive or of the
+   * keys of every disc on the board, along with the turn key when it is white's turn, so placing,
+   * flipping or removing a disc updates it with a single exclusive or.
+   *
+   * @param index The index of the cell.
+   * @param disc  The disc on the cell.
+   * @return The key of that disc on that cell, or 0 for an empty cell.
+   */
+  public long discKey(int index, Disc disc) {
+    if (disc == Disc.BLACK) {
+      return zobristKeys[index * 2];
+    } else if (disc == Disc.WHITE) {
+      return zobristKeys[index * 2 + 1];
+    }
+    return 0L;
+  }
+
+  /**
+   * Retrieves the Zobrist key that is mixed into a position's hash when it is white's turn.
+   *
+   * @return The key for white to move.
+   */
+  public long getTurnKey() {
+    return turnKey;
+  }
+}
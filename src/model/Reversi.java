@@ -34,6 +34,15 @@ public interface Reversi extends ReversiReadOnly {
    */
   void makeMove(Position dest);
 
+  /**
+   * Takes back the most recent move or pass, restoring the discs it changed along with the turn
+   * and pass count from before it. Paired with {@link #makeMove(Position)}, this lets a position
+   * be explored in place without copying the board.
+   *
+   * @throws IllegalStateException If there is no move or pass to take back.
+   */
+  void undoMove();
+
   /**
    * Places a disc at the specified cell Positions.
    *
@@ -134,6 +143,15 @@ public interface Reversi extends ReversiReadOnly {
    */
   void addObserver(ControllerFeatures controller);
 
+  /**
+   * Sets the listener told of every disc that changes on the board from now on, replacing any
+   * listener set before. Changes made while the board is being set up are not reported, so a
+   * listener should read the board once when it is set.
+   *
+   * @param listener The listener, or null to stop reporting changes.
+   */
+  void setDiscListener(DiscListener listener);
+
   /**
    * Notifies observers that the turn in the Reversi game has changed.
    * This method is typically called when it's the next player's turn.
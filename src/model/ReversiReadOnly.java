@@ -91,6 +91,55 @@ public interface ReversiReadOnly {
    */
   boolean validMove(Position coor, Disc currentTurn);
 
+  /**
+   * Counts the discs a player would capture by playing at a position, without making the move.
+   * Unlike {@link #checkMove(ReversiReadOnly, Position)}, this never throws: a position that is
+   * off the board, already taken or captures nothing simply counts as 0.
+   *
+   * @param move   The position being considered, which may be null.
+   * @param player The disc color of the player making the move.
+   * @return The number of opposing discs the move would flip, or 0 if the move is not legal.
+   */
+  int countFlips(Position move, Disc player);
+
+  /**
+   * Lists every cell the given player could legally play, as geometry indexes in increasing
+   * order, into an array supplied by the caller. Nothing is allocated, so searches can list the
+   * moves of every position they visit into arrays they reuse.
+   *
+   * @param player The disc color of the player to list moves for.
+   * @param moves  The array to write the moves into, at least as long as the geometry's cell
+   *               count.
+   * @return The number of moves written.
+   */
+  int listMoves(Disc player, int[] moves);
+
+  /**
+   * Retrieves the geometry of the board, which numbers its cells and holds the precomputed rays
+   * that captures are checked along. Shared by every game of the same shape and size.
+   *
+   * @return The geometry of the board.
+   */
+  Geometry getGeometry();
+
+  /**
+   * Retrieves a 64-bit Zobrist hash of the current position, covering every disc on the board and
+   * the player to move. Equal positions on boards of the same shape and size always hash the
+   * same, so the hash can key transposition tables and caches of results.
+   *
+   * @return The hash of the current position.
+   */
+  long getPositionHash();
+
+  /**
+   * Takes an immutable snapshot of the discs on the board and the player to move. Later moves do
+   * not change a snapshot, so it can be held on to safely, and taking one does not copy the
+   * whole board each time.
+   *
+   * @return A snapshot of the current position.
+   */
+  BoardSnapshot snapshot();
+
   /**
    * Retrieves a map representation of the current game board in a read-only manner.
    *
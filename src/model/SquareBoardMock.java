@@ -48,6 +48,7 @@ public class SquareBoardMock extends AbstractModel{
     compassY.put("sw", 1);
     playGame();
     log = new StringBuilder();
+    indexCells(Geometry.square(size));
   }
 
   /**
@@ -90,6 +91,7 @@ public class SquareBoardMock extends AbstractModel{
       Cell newCell = new Cell(originalCell.getContent());
       this.grid.put(coord, newCell);
     }
+    indexCells(Geometry.square(size));
   }
 
   /**
@@ -0,0 +1,99 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Records what is needed to take back moves and passes, newest first. Each entry holds only the
+ * cell that was played, the cells it flipped, and the turn, pass counter and game state from
+ * before it, all kept in growable primitive arrays so that recording a move does not allocate
+ * once the stack has grown to the depth being searched.
+ */
+final class UndoStack {
+  private int[] placed = new int[64];
+  private int[] flipStart = new int[64];
+  private int[] passes = new int[64];
+  private Turn[] turns = new Turn[64];
+  private GameState[] states = new GameState[64];
+  private int[] flips = new int[256];
+  private int top = -1;
+  private int flipTop = 0;
+
+  /**
+   * Starts a new entry on top of the stack.
+   *
+   * @param cell           The geometry index of the cell played, or -1 for a pass.
+   * @param previousTurn   The turn before the move was made.
+   * @param previousPasses The consecutive pass counter before the move was made.
+   * @param previousState  The game state before the move was made.
+   */
+  void push(int cell, Turn previousTurn, int previousPasses, GameState previousState) {
+    top++;
+    if (top == placed.length) {
+      int capacity = placed.length * 2;
+      placed = Arrays.copyOf(placed, capacity);
+      flipStart = Arrays.copyOf(flipStart, capacity);
+      passes = Arrays.copyOf(passes, capacity);
+      turns = Arrays.copyOf(turns, capacity);
+      states = Arrays.copyOf(states, capacity);
+    }
+    placed[top] = cell;
+    flipStart[top] = flipTop;
+    passes[top] = previousPasses;
+    turns[top] = previousTurn;
+    states[top] = previousState;
+  }
+
+  /**
+   * Records a cell flipped by the move on top of the stack.
+   *
+   * @param cell The geometry index of the flipped cell.
+   */
+  void addFlip(int cell) {
+    if (flipTop == flips.length) {
+      flips = Arrays.copyOf(flips, flips.length * 2);
+    }
+    flips[flipTop++] = cell;
+  }
+
+  /**
+   * Removes the entry on top of the stack along with its flipped cells.
+   */
+  void pop() {
+    flipTop = flipStart[top];
+    turns[top] = null;
+    states[top] = null;
+    top--;
+  }
+
+  boolean isEmpty() {
+    return top < 0;
+  }
+
+  int size() {
+    return top + 1;
+  }
+
+  int placed() {
+    return placed[top];
+  }
+
+  int flipCount() {
+    return flipTop - flipStart[top];
+  }
+
+  int flip(int i) {
+    return flips[flipStart[top] + i];
+  }
+
+  int previousPasses() {
+    return passes[top];
+  }
+
+  Turn previousTurn() {
+    return turns[top];
+  }
+
+  GameState previousState() {
+    return states[top];
+  }
+}
@@ -22,9 +22,15 @@ import java.util.Objects;
  */
 public class HexCoord {
 
+  // coordinates within this distance of the center are handed out from a shared table by of()
+  private static final int TABLE_RADIUS = 64;
+  private static final int TABLE_WIDTH = 2 * TABLE_RADIUS + 1;
+  private static final HexCoord[] TABLE = new HexCoord[TABLE_WIDTH * TABLE_WIDTH];
+
   public final int q;
   public final int r;
   public final int s;
+  private final int hash;
 
   /**
    * Constructs a new HexCoord with the specified axial coordinates.
@@ -42,6 +48,36 @@ public class HexCoord {
     this.q = q;
     this.r = r;
     this.s = s;
+    this.hash = Objects.hash(this.s, this.q, this.s);
+  }
+
+  /**
+   * Returns the HexCoord with the specified axial coordinates. Coordinates near the center of the
+   * grid, which covers every board in practice, are shared instances created the first time they
+   * are asked for, so looking up tiles by coordinate does not allocate.
+   *
+   * @param q The q-coordinate.
+   * @param r The r-coordinate.
+   * @param s The s-coordinate.
+   * @return A HexCoord with those coordinates.
+   * @throws IllegalStateException if the sum of q, r, and s does not equal 0, violating the
+   *                               invariant.
+   */
+  public static HexCoord of(int q, int r, int s) {
+    if (q + r + s != 0) {
+      throw new IllegalStateException("Invariant is that q, r, and s should sum to 0");
+    }
+    if (Math.abs(q) > TABLE_RADIUS || Math.abs(r) > TABLE_RADIUS) {
+      return new HexCoord(q, r, s);
+    }
+    int slot = (q + TABLE_RADIUS) * TABLE_WIDTH + (r + TABLE_RADIUS);
+    HexCoord coord = TABLE[slot];
+    if (coord == null) {
+      // all fields are final, so a coordinate seen through a racing read is always complete
+      coord = new HexCoord(q, r, s);
+      TABLE[slot] = coord;
+    }
+    return coord;
   }
 
   /**
@@ -53,6 +89,9 @@ public class HexCoord {
    */
   @Override
   public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
     if (!(o instanceof HexCoord)) {
       return false;
     }
@@ -63,13 +102,14 @@ public class HexCoord {
 
   /**
    * Computes the hash code for this HexCoord based on its q, r, and s coordinates. This method
-   * ensures that equal HexCoord objects have the same hash code.
+   * ensures that equal HexCoord objects have the same hash code, and is worked out once when the
+   * coordinate is made.
    *
    * @return The hash code for this HexCoord.
    */
   @Override
   public int hashCode() {
-    return Objects.hash(this.s, this.q, this.s);
+    return hash;
   }
 
   /**
@@ -37,7 +37,7 @@ public enum HexDirection {
    */
   public HexCoord addDirectionToCoord(HexCoord other) {
     Objects.requireNonNull(other);
-    return new HexCoord(other.q + this.direction.q,
+    return HexCoord.of(other.q + this.direction.q,
             other.r + this.direction.r, other.s + this.direction.s);
   }
 }
@@ -230,7 +230,7 @@ public class ReversiPanel extends JPanel implements ReversiPanelView {
    *     unoccupied.
    */
   private Optional<Color> getDiscColor(int q, int r) {
-    PlayerOwnership playerOwnership = this.model.getBoard().getMap().get(new HexCoord(q, r, -q - r))
+    PlayerOwnership playerOwnership = this.model.getBoard().getMap().get(HexCoord.of(q, r, -q - r))
         .getPlayerOwnership();
 
     switch (playerOwnership) {
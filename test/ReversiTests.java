@@ -4,10 +4,27 @@ import org.junit.Test;
 import controller.AIPlayer;
 import controller.ControllerFeatures;
 import controller.ReversiControllerMock;
+import controller.aistrat.AlphaBeta;
 import controller.aistrat.AvoidCorners;
+import controller.aistrat.CachingStrategy;
 import controller.aistrat.CaptureCorners;
 import controller.aistrat.CaptureMost;
+import controller.aistrat.DiscCountEvaluator;
+import controller.aistrat.EndgameSolver;
+import controller.aistrat.EvaluationTuner;
+import controller.aistrat.Evaluator;
+import controller.aistrat.IterativeDeepening;
+import controller.aistrat.MonteCarloTreeSearch;
+import controller.aistrat.MoveContext;
+import controller.aistrat.NetworkTrainer;
+import controller.aistrat.NnueEvaluator;
+import controller.aistrat.OpeningBook;
+import controller.aistrat.OpeningBookBuilder;
+import controller.aistrat.ParallelSearch;
+import controller.aistrat.PatternEvaluator;
 import controller.aistrat.ReversiStratagy;
+import controller.aistrat.SearchResult;
+import controller.aistrat.TranspositionTable;
 import controller.aistrat.TryTwo;
 
 import static org.junit.Assert.assertEquals;
@@ -15,16 +32,28 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import model.Board;
+import model.BoardSnapshot;
+import model.BitSquareBoard;
 import model.BoardMock;
+import model.CartesianCoordinate;
 import model.Cell;
 import model.Coordinate;
 import model.Disc;
+import model.FlatHexBoard;
 import model.GameState;
+import model.Geometry;
 import model.Coordinate;
 import model.Position;
 import model.Reversi;
@@ -630,6 +659,118 @@ public class ReversiTests {
                     "makeMove called for position: 0, -3\n");
   }
 
+  @Test
+  public void testCachingStrategyReplaysMovesAndEvictsByClock() {
+    int[] asked = new int[1];
+    ReversiStratagy counted = (model, turn) -> {
+      asked[0]++;
+      return new CaptureMost().chooseMove(model, turn);
+    };
+    CachingStrategy cache = new CachingStrategy(counted, 2);
+    Reversi first = new Board(5);
+    Reversi second = new Board(5);
+    second.makeMove(second.getPossibleMoves().get(0));
+    Reversi third = new Board(5);
+    third.makeMove(third.getPossibleMoves().get(1));
+
+    Position move = cache.chooseMove(first, Disc.BLACK);
+    cache.chooseMove(second, Disc.WHITE);
+    assertEquals(move, cache.chooseMove(first, Disc.BLACK));
+    // the first position was used since it was stored, so the second is the one replaced
+    cache.chooseMove(third, Disc.WHITE);
+    assertEquals(move, cache.chooseMove(first, Disc.BLACK));
+    cache.chooseMove(second, Disc.WHITE);
+    assertEquals(move, cache.chooseMove(first, Disc.BLACK));
+    assertEquals(3, cache.getHits());
+    assertEquals(4, cache.getMisses());
+    assertEquals(2, cache.getEvictions());
+    assertEquals(4, asked[0]);
+    assertEquals(2, cache.getSize());
+
+    // the same discs with the other player to move are another position
+    assertEquals(new CaptureMost().chooseMove(first, Disc.WHITE),
+            cache.chooseMove(first, Disc.WHITE));
+    assertEquals(5, asked[0]);
+    assertThrows(IllegalArgumentException.class, () -> new CachingStrategy(counted, 0));
+    assertThrows(IllegalArgumentException.class, () -> new CachingStrategy(null, 1));
+  }
+
+  @Test
+  public void testComposedStrategiesGenerateMovesOncePerTurn() {
+    int[] generated = new int[1];
+    Board board = new Board(5) {
+      @Override
+      public ArrayList<Position> getPossibleMoves() {
+        generated[0]++;
+        return super.getPossibleMoves();
+      }
+    };
+    ReversiStratagy chain = new TryTwo(new CaptureCorners(), new AvoidCorners());
+    Disc turn = Disc.BLACK;
+    for (int move = 0; move < 6; move++) {
+      generated[0] = 0;
+      MoveContext context = new MoveContext(board);
+      Position chosen = chain.chooseMove(board, turn, context);
+      // both strategies share the context, so the moves are generated once
+      assertEquals(1, generated[0]);
+      assertEquals(chosen, new TryTwo(new CaptureCorners(), new AvoidCorners())
+              .chooseMove(board, turn));
+
+      List<Position> flips = context.getFlips(chosen);
+      assertEquals(context.getFlipCount(chosen), flips.size());
+      board.makeMove(chosen);
+      for (Position flipped : flips) {
+        assertEquals(turn, board.getDiscAt(flipped.getFirstCoordinate(),
+                flipped.getSecondCoordinate()));
+      }
+      turn = turn == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+    }
+    assertEquals(0, new MoveContext(board).getFlipCount(new Coordinate(5, 5)));
+    assertThrows(IllegalArgumentException.class, () -> new MoveContext(null));
+  }
+
+  @Test
+  public void testPonderingAnswersTheOpponentsReplyAtOnce() throws InterruptedException {
+    Board board = new Board(4);
+    ReversiStratagy captureMost = new CaptureMost();
+    AIPlayer ai = new AIPlayer(Disc.BLACK, captureMost, true);
+    ai.makeAMove(board, null);
+    assertEquals(Disc.WHITE, board.currentColor());
+    for (int waited = 0; ai.isPondering() && waited < 5000; waited += 10) {
+      Thread.sleep(10);
+    }
+    assertFalse(ai.isPondering());
+
+    // the opponent plays a reply the player has already searched
+    board.makeMove(board.getPossibleMoves().get(board.getPossibleMoves().size() - 1));
+    Position expected = captureMost.chooseMove(board, Disc.BLACK);
+    ai.makeAMove(board, null);
+    ai.stopPondering();
+    assertEquals(1, ai.getPonderHits());
+    assertEquals(Disc.BLACK, board.getDiscAt(expected.getFirstCoordinate(),
+            expected.getSecondCoordinate()));
+    assertEquals(Disc.WHITE, board.currentColor());
+  }
+
+  @Test
+  public void testCancelledPonderingLeavesTheNextMoveItsBudget() throws InterruptedException {
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(2, 400, Math.sqrt(2), 18);
+    Board board = new Board(6);
+    mcts.chooseMove(board, Disc.BLACK);
+    long unhindered = mcts.getLastPlayouts();
+
+    AIPlayer ai = new AIPlayer(Disc.BLACK, mcts, true);
+    ai.makeAMove(board, null);
+    assertTrue(ai.isPondering());
+    Thread.sleep(50);
+    ai.stopPondering();
+    // the pondering playouts were stopped, so they don't take the threads from the next move
+    long start = System.nanoTime();
+    mcts.chooseMove(board, Disc.WHITE);
+    assertTrue(System.nanoTime() - start < 1000000000L);
+    assertTrue(mcts.getLastPlayouts() > unhindered / 2);
+  }
+
   @Test
   public void TestControllerSimple() {
     Board b1 = new Board(4);
@@ -754,5 +895,740 @@ public class ReversiTests {
             "AI Move was made by WHITE\n");
   }
 
+  @Test
+  public void testFlatHexBoardIsCreatedCorrectly() {
+    FlatHexBoard newBoard = new FlatHexBoard(4);
+
+    BoardRenderer br = new BoardRenderer(newBoard);
+    assertEquals(
+            "   _ _ _ _ \n" + //
+                    "  _ _ _ _ _ \n" + //
+                    " _ _ X O _ _ \n" + //
+                    "_ _ O _ X _ _ \n" + //
+                    " _ _ X O _ _ \n" + //
+                    "  _ _ _ _ _ \n" + //
+                    "   _ _ _ _ \n", br.toString());
+    assertThrows(IllegalArgumentException.class, () -> newBoard.getDiscAt(10, 10));
+    assertThrows(IllegalArgumentException.class, () ->
+            newBoard.makeMove(new Coordinate(1, 0)));
+  }
+
+  @Test
+  public void testFlatHexBoardMatchesBoardInRandomGames() {
+    Random rand = new Random(11);
+    for (int size = 2; size <= 7; size++) {
+      for (int game = 0; game < 4; game++) {
+        Reversi slow = new Board(size);
+        Reversi fast = new FlatHexBoard(size);
+        while (!slow.isGameOver()) {
+          assertFalse(fast.isGameOver());
+          ArrayList<Position> moves = slow.getPossibleMoves();
+          assertEquals(new HashSet<>(moves), new HashSet<>(fast.getPossibleMoves()));
+          if (moves.isEmpty()) {
+            slow.passTurn();
+            fast.passTurn();
+          } else {
+            Position move = moves.get(rand.nextInt(moves.size()));
+            assertEquals(slow.checkMove(slow, move), fast.checkMove(fast, move));
+            slow.makeMove(move);
+            fast.makeMove(move);
+          }
+          assertEquals(new BoardRenderer(slow).toString(), new BoardRenderer(fast).toString());
+        }
+        assertTrue(fast.isGameOver());
+        assertEquals(slow.getState(), fast.getState());
+      }
+    }
+  }
+
+  @Test
+  public void testGeometryRaysAreSharedPerSize() {
+    Geometry hex = Geometry.hex(4);
+    assertTrue(hex == new Board(4).getGeometry());
+    assertEquals(37, hex.getCellCount());
+    assertEquals(-1, hex.index(3, 3));
+
+    int center = hex.index(0, 0);
+    int[] east = hex.ray(center, 0);
+    assertEquals(3, east.length);
+    assertEquals(hex.index(1, 0), east[0]);
+    assertEquals(hex.index(3, 0), east[2]);
+
+    Geometry square = Geometry.square(8);
+    assertTrue(square == new SquareBoard(8).getGeometry());
+    assertEquals(64, square.getCellCount());
+    assertEquals(19, square.index(3, 2));
+    assertEquals(7, square.ray(square.index(0, 0), 6).length);
+  }
+
+  @Test
+  public void testUndoMoveRestoresEarlierPositions() {
+    Random rand = new Random(5);
+    for (Reversi board : new Reversi[]{new Board(6), new FlatHexBoard(6)}) {
+      ArrayList<String> renders = new ArrayList<>();
+      ArrayList<Disc> turns = new ArrayList<>();
+      while (!board.isGameOver()) {
+        renders.add(new BoardRenderer(board).toString());
+        turns.add(board.currentColor());
+        ArrayList<Position> moves = board.getPossibleMoves();
+        if (moves.isEmpty()) {
+          board.passTurn();
+        } else {
+          board.makeMove(moves.get(rand.nextInt(moves.size())));
+        }
+      }
+      for (int move = renders.size() - 1; move >= 0; move--) {
+        board.undoMove();
+        assertEquals(renders.get(move), new BoardRenderer(board).toString());
+        assertEquals(turns.get(move), board.currentColor());
+      }
+      assertEquals(GameState.INPROGRESS, board.getState());
+      assertThrows(IllegalStateException.class, board::undoMove);
+    }
+  }
+
+  @Test
+  public void testScoresFollowPlacedMovedAndUndoneDiscs() {
+    for (Reversi board : new Reversi[]{new Board(4), new FlatHexBoard(4)}) {
+      assertEquals(3, board.getScore(Disc.BLACK));
+      assertEquals(3, board.getScore(Disc.WHITE));
+      assertEquals(31, board.getScore(Disc.EMPTY));
+      board.placeDisc(2, 0, Disc.WHITE);
+      board.placeDisc(2, 0, Disc.WHITE);
+      assertEquals(4, board.getScore(Disc.WHITE));
+      board.makeMove(new Coordinate(2, -1));
+      assertEquals(5, board.getScore(Disc.BLACK));
+      assertEquals(3, board.getScore(Disc.WHITE));
+      assertEquals(29, board.getScore(Disc.EMPTY));
+      board.undoMove();
+      assertEquals(3, board.getScore(Disc.BLACK));
+      assertEquals(4, board.getScore(Disc.WHITE));
+      assertEquals(30, board.getScore(Disc.EMPTY));
+    }
+    Reversi square = new SquareBoard(6);
+    assertEquals(32, square.getScore(Disc.EMPTY));
+    square.placeDisc(0, 0, Disc.BLACK);
+    assertEquals(3, square.getScore(Disc.BLACK));
+    assertEquals(31, square.getScore(Disc.EMPTY));
+  }
+
+  @Test
+  public void testCountFlipsNeverThrows() {
+    for (Reversi board : new Reversi[]{new Board(4), new FlatHexBoard(4)}) {
+      assertEquals(0, board.countFlips(null, Disc.BLACK));
+      assertEquals(0, board.countFlips(new Coordinate(9, 9), Disc.BLACK));
+      assertEquals(0, board.countFlips(new Coordinate(1, 0), Disc.WHITE));
+      assertEquals(0, board.countFlips(new Coordinate(0, 0), Disc.BLACK));
+      assertEquals(1, board.countFlips(new Coordinate(2, -1), Disc.BLACK));
+      assertEquals(1, board.countFlips(new Coordinate(2, -1), Disc.WHITE));
+      assertEquals(1, board.checkMove(board, new Coordinate(2, -1)));
+      assertEquals(0, board.checkMove(board, new Coordinate(0, 0)));
+    }
+    Reversi square = new SquareBoard(6);
+    assertEquals(0, square.countFlips(new Coordinate(0, 0), Disc.BLACK));
+    assertThrows(IllegalArgumentException.class,
+        () -> square.checkMove(square, new Coordinate(0, 0)));
+  }
+
+  @Test
+  public void testPositionHashFollowsMovesPassesAndUndo() {
+    Random rand = new Random(9);
+    Reversi board = new Board(5);
+    Reversi flat = new FlatHexBoard(5);
+    long start = board.getPositionHash();
+    assertEquals(start, flat.getPositionHash());
+    board.passTurn();
+    assertFalse(start == board.getPositionHash());
+    board.undoMove();
+    assertEquals(start, board.getPositionHash());
+
+    while (!board.isGameOver()) {
+      ArrayList<Position> moves = board.getPossibleMoves();
+      if (moves.isEmpty()) {
+        board.passTurn();
+        flat.passTurn();
+      } else {
+        Position move = moves.get(rand.nextInt(moves.size()));
+        board.makeMove(move);
+        flat.makeMove(move);
+      }
+      Turn turn = board.currentColor() == Disc.BLACK ? Turn.BLACK : Turn.WHITE;
+      Board rebuilt = new Board(5, board.createCopyOfBoard(), turn);
+      assertEquals(rebuilt.getPositionHash(), board.getPositionHash());
+      assertEquals(board.getPositionHash(), flat.getPositionHash());
+    }
+    while (true) {
+      try {
+        board.undoMove();
+      } catch (IllegalStateException e) {
+        break;
+      }
+    }
+    assertEquals(start, board.getPositionHash());
+  }
+
+  @Test
+  public void testSnapshotsAreUnchangedByLaterMoves() {
+    Random rand = new Random(13);
+    Reversi board = new Board(6);
+    ArrayList<BoardSnapshot> snapshots = new ArrayList<>();
+    ArrayList<HashMap<Position, Cell>> copies = new ArrayList<>();
+    while (!board.isGameOver()) {
+      snapshots.add(board.snapshot());
+      copies.add(board.createCopyOfBoard());
+      ArrayList<Position> moves = board.getPossibleMoves();
+      if (moves.isEmpty()) {
+        board.passTurn();
+      } else {
+        board.makeMove(moves.get(rand.nextInt(moves.size())));
+      }
+    }
+    board.undoMove();
+    for (int move = 0; move < snapshots.size(); move++) {
+      BoardSnapshot snapshot = snapshots.get(move);
+      for (Position pos : copies.get(move).keySet()) {
+        assertEquals(copies.get(move).get(pos).getContent(),
+                snapshot.getDiscAt(pos.getFirstCoordinate(), pos.getSecondCoordinate()));
+      }
+    }
+
+    BoardSnapshot last = board.snapshot();
+    Reversi copy = new FlatHexBoard(last);
+    assertEquals(new BoardRenderer(board).toString(), new BoardRenderer(copy).toString());
+    assertEquals(board.currentColor(), copy.currentColor());
+    assertEquals(last.getPositionHash(), copy.getPositionHash());
+    assertThrows(IllegalArgumentException.class, () -> new FlatHexBoard(
+            new SquareBoard(6).snapshot()));
+  }
+
+  @Test
+  public void testPositionsAreSharedAndKnowTheirCorners() {
+    Board board = new Board(4);
+    Geometry hex = board.getGeometry();
+    for (Position move : board.getPossibleMoves()) {
+      int index = hex.index(move.getFirstCoordinate(), move.getSecondCoordinate());
+      assertTrue(move == hex.getPosition(index));
+    }
+    assertTrue(hex.position(1, -2) == hex.position(1, -2));
+    assertThrows(IllegalArgumentException.class, () -> hex.position(3, 3));
+
+    assertTrue(new Coordinate(0, -3).isCorner(4));
+    assertTrue(new Coordinate(3, 0).isCorner(4));
+    assertFalse(new Coordinate(0, 0).isCorner(4));
+    assertFalse(new Coordinate(4, 4).isCorner(4));
+    assertTrue(new Coordinate(1, -3).isNextToCorner(4));
+    assertFalse(new Coordinate(0, -3).isNextToCorner(4));
+    assertTrue(new CartesianCoordinate(7, 7).isCorner(8));
+    assertTrue(new CartesianCoordinate(1, 1).isNextToCorner(8));
+    assertFalse(new CartesianCoordinate(3, 3).isNextToCorner(8));
+
+    assertTrue(HexCoord.of(1, -1, 0) == HexCoord.of(1, -1, 0));
+    assertEquals(new HexCoord(1, -1, 0), HexCoord.of(1, -1, 0));
+    assertEquals(new HexCoord(1, -1, 0).hashCode(), HexCoord.of(1, -1, 0).hashCode());
+  }
+
+  @Test
+  public void testAlphaBetaMatchesPlainMinimax() {
+    Random rand = new Random(21);
+    Reversi board = new Board(5);
+    for (int move = 0; move < 12 && !board.isGameOver(); move++) {
+      for (int depth = 1; depth <= 3; depth++) {
+        long hash = board.getPositionHash();
+        SearchResult result = new AlphaBeta(depth).search(board);
+        assertEquals(minimax(board, depth, false), result.getScore());
+        assertEquals(hash, board.getPositionHash());
+        assertTrue(board.validMove(result.getMove(), board.currentColor()));
+        board.makeMove(result.getMove());
+        assertEquals(result.getScore(), -minimax(board, depth - 1, false));
+        board.undoMove();
+      }
+      ArrayList<Position> moves = board.getPossibleMoves();
+      board.makeMove(moves.get(rand.nextInt(moves.size())));
+    }
+    assertThrows(IllegalArgumentException.class, () -> new AlphaBeta(0));
+  }
+
+  @Test
+  public void testAlphaBetaDepthOneTakesTheMostDiscs() {
+    Board board = new Board(4);
+    AlphaBeta search = new AlphaBeta(1, new DiscCountEvaluator());
+    for (int move = 0; move < 6; move++) {
+      Position chosen = search.chooseMove(board, board.currentColor());
+      int most = 0;
+      for (Position pos : board.getPossibleMoves()) {
+        most = Math.max(most, board.countFlips(pos, board.currentColor()));
+      }
+      assertEquals(most, board.countFlips(chosen, board.currentColor()));
+      board.makeMove(chosen);
+    }
+  }
+
+  @Test
+  public void testIterativeDeepeningAnswersWithinItsBudget() {
+    Board board = new Board(10);
+    IterativeDeepening timed = new IterativeDeepening(100);
+    long start = System.nanoTime();
+    SearchResult result = timed.search(board);
+    long elapsed = (System.nanoTime() - start) / 1000000;
+    assertTrue("took " + elapsed + " ms", elapsed < 1000);
+    assertTrue(board.validMove(result.getMove(), Disc.BLACK));
+    assertEquals(result.getDepth(), timed.getLastDepth());
+    assertTrue(result.getDepth() >= 1 && result.getDepth() < 64);
+
+    IterativeDeepening deep = new IterativeDeepening(60000, 4, new DiscCountEvaluator());
+    assertEquals(new AlphaBeta(4).search(board).getScore(), deep.search(board).getScore());
+    assertEquals(4, deep.getLastDepth());
+    assertThrows(IllegalArgumentException.class, () -> new IterativeDeepening(0));
+  }
+
+  @Test
+  public void testTranspositionTableKeepsDeepAndNewEntries() {
+    TranspositionTable table = new TranspositionTable(1);
+    assertEquals(65536, table.getCapacity());
+    assertEquals(0L, table.probe(42L));
+
+    table.store(42L, 6, TranspositionTable.LOWER, -1234, 17);
+    long entry = table.probe(42L);
+    assertEquals(6, TranspositionTable.getDepth(entry));
+    assertEquals(TranspositionTable.LOWER, TranspositionTable.getBound(entry));
+    assertEquals(-1234, TranspositionTable.getScore(entry));
+    assertEquals(17, TranspositionTable.getMove(entry));
+
+    // same bucket, different position: the shallow entry goes to the always-replace slot
+    long other = 42L + (1L << 40);
+    table.store(other, 2, TranspositionTable.EXACT, 5, -1);
+    assertEquals(6, TranspositionTable.getDepth(table.probe(42L)));
+    assertEquals(-1, TranspositionTable.getMove(table.probe(other)));
+    long third = 42L + (2L << 40);
+    table.store(third, 3, TranspositionTable.UPPER, 0, 1);
+    assertEquals(0L, table.probe(other));
+    assertEquals(6, TranspositionTable.getDepth(table.probe(42L)));
+
+    // after a new search starts, the old deep entry gives way and moves to the second slot
+    table.newSearch();
+    table.store(other, 1, TranspositionTable.EXACT, 9, 2);
+    assertEquals(9, TranspositionTable.getScore(table.probe(other)));
+    assertEquals(-1234, TranspositionTable.getScore(table.probe(42L)));
+    assertEquals(0L, table.probe(third));
+
+    table.clear();
+    assertEquals(0L, table.probe(other));
+    assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+  }
+
+  @Test
+  public void testAlphaBetaWithTableFindsTheSameScores() {
+    Random rand = new Random(5);
+    Reversi board = new Board(6);
+    for (int move = 0; move < 10; move++) {
+      SearchResult plain = new AlphaBeta(4).search(board);
+      SearchResult cached = new AlphaBeta(4, new DiscCountEvaluator(),
+              new TranspositionTable(1)).search(board);
+      assertEquals(plain.getScore(), cached.getScore());
+      assertTrue(cached.getNodes() <= plain.getNodes());
+      ArrayList<Position> moves = board.getPossibleMoves();
+      board.makeMove(moves.get(rand.nextInt(moves.size())));
+    }
+  }
+
+  @Test
+  public void testSearchesReportTheirPrincipalVariation() {
+    Random rand = new Random(20);
+    Reversi board = new Board(6);
+    IterativeDeepening deepening = new IterativeDeepening(60000, 4, new DiscCountEvaluator(),
+            new TranspositionTable(1));
+    for (int move = 0; move < 10; move++) {
+      SearchResult result = new AlphaBeta(4).search(board);
+      List<Position> line = result.getPrincipalVariation();
+      assertEquals(result.getMove(), line.get(0));
+      // the aspiration windows must not change the score
+      assertEquals(result.getScore(), deepening.search(board).getScore());
+
+      // playing the line out reaches the position the score was given to
+      Disc player = board.currentColor();
+      Disc opponent = player == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+      Reversi copy = new FlatHexBoard(board.snapshot());
+      for (Position step : line) {
+        if (step.equals(new Coordinate(6, 6))) {
+          copy.passTurn();
+        } else {
+          copy.makeMove(step);
+        }
+      }
+      if (Math.abs(result.getScore()) < AlphaBeta.WIN_SCORE / 2) {
+        assertEquals(result.getScore(), copy.getScore(player) - copy.getScore(opponent));
+      }
+      ArrayList<Position> moves = board.getPossibleMoves();
+      board.makeMove(moves.get(rand.nextInt(moves.size())));
+    }
+  }
+
+  @Test
+  public void testPatternEvaluatorFollowsMovesAndUndos() {
+    Random rand = new Random(21);
+    PatternEvaluator patterns = new PatternEvaluator();
+    Reversi[] boards = {new Board(6), new FlatHexBoard(5), new SquareBoard(8),
+        new BitSquareBoard(6)};
+    for (Reversi board : boards) {
+      Evaluator attached = patterns.attach(board);
+      int depth = 0;
+      while (!board.isGameOver()) {
+        int score = patterns.evaluate(board, Disc.BLACK);
+        assertEquals(score, attached.evaluate(board, Disc.BLACK));
+        assertEquals(-score, attached.evaluate(board, Disc.WHITE));
+        ArrayList<Position> moves = board.getPossibleMoves();
+        if (depth > 0 && rand.nextInt(4) == 0) {
+          board.undoMove();
+          depth--;
+        } else if (moves.isEmpty()) {
+          board.passTurn();
+          depth++;
+        } else {
+          board.makeMove(moves.get(rand.nextInt(moves.size())));
+          depth++;
+        }
+      }
+      assertEquals(patterns.evaluate(board, Disc.WHITE), attached.evaluate(board, Disc.WHITE));
+    }
+    // the initial position is symmetric, so its weights cancel out
+    assertEquals(0, patterns.evaluate(new SquareBoard(8), Disc.BLACK));
+    Geometry geometry = new Board(6).getGeometry();
+    int[][] weights = patterns.getWeights(geometry);
+    weights[0] = new int[3];
+    int[][] wrongShape = weights;
+    assertThrows(IllegalArgumentException.class, () -> patterns.setWeights(geometry, wrongShape));
+  }
+
+  @Test
+  public void testParallelSearchPlaysLegalMovesInTime() {
+    Random rand = new Random(8);
+    Reversi board = new Board(7);
+    ParallelSearch parallel = new ParallelSearch(4, 50);
+    for (int move = 0; move < 8 && !board.isGameOver(); move++) {
+      long hash = board.getPositionHash();
+      long start = System.nanoTime();
+      SearchResult result = parallel.search(board);
+      assertTrue((System.nanoTime() - start) / 1000000 < 1000);
+      assertEquals(hash, board.getPositionHash());
+      assertTrue(board.validMove(result.getMove(), board.currentColor()));
+      assertEquals(result.getDepth(), parallel.getLastDepth());
+      assertEquals(result.getNodes(), parallel.getLastNodes());
+      board.makeMove(result.getMove());
+      ArrayList<Position> moves = board.getPossibleMoves();
+      if (moves.isEmpty()) {
+        board.passTurn();
+      } else {
+        board.makeMove(moves.get(rand.nextInt(moves.size())));
+      }
+    }
+
+    // with no time limit every thread stops once one of them has finished the last depth
+    ParallelSearch fixed = new ParallelSearch(3, 60000, 4, new DiscCountEvaluator(),
+            new TranspositionTable(1));
+    SearchResult result = fixed.search(board);
+    assertEquals(4, result.getDepth());
+    assertTrue(board.validMove(result.getMove(), board.currentColor()));
+    assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0, 100));
+  }
+
+  @Test
+  public void testInterruptedParallelSearchWaitsForItsThreads() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger held = new AtomicInteger();
+    // the search's pool threads are held inside the evaluation until released
+    Evaluator holding = (model, player) -> {
+      if (Thread.currentThread().getName().startsWith("ForkJoinPool")
+              && release.getCount() > 0) {
+        held.incrementAndGet();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        held.decrementAndGet();
+      }
+      return new DiscCountEvaluator().evaluate(model, player);
+    };
+    ParallelSearch parallel = new ParallelSearch(2, 60000, 4, holding,
+            new TranspositionTable(1));
+    Reversi first = new Board(5);
+    boolean[] interrupted = new boolean[1];
+    Thread searcher = new Thread(() -> {
+      parallel.search(first);
+      interrupted[0] = Thread.currentThread().isInterrupted();
+    });
+    searcher.start();
+    for (int waited = 0; held.get() == 0 && waited < 5000; waited += 10) {
+      Thread.sleep(10);
+    }
+    assertTrue(held.get() > 0);
+    searcher.interrupt();
+    // the search can't return while its threads are still in the middle of the old position
+    searcher.join(200);
+    assertTrue(searcher.isAlive());
+    release.countDown();
+    searcher.join(5000);
+    assertFalse(searcher.isAlive());
+    assertEquals(0, held.get());
+    assertTrue(interrupted[0]);
+
+    Reversi second = new Board(5);
+    second.makeMove(second.getPossibleMoves().get(0));
+    SearchResult result = parallel.search(second);
+    assertTrue(second.validMove(result.getMove(), second.currentColor()));
+  }
+
+  @Test
+  public void testMonteCarloTreeSearchPlaysWholeGames() {
+    Reversi board = new Board(4);
+    MonteCarloTreeSearch mcts = new MonteCarloTreeSearch(2, 20, Math.sqrt(2), 11);
+    while (!board.isGameOver()) {
+      long hash = board.getPositionHash();
+      Position move = mcts.chooseMove(board, board.currentColor());
+      assertEquals(hash, board.getPositionHash());
+      if (board.getPossibleMoves().isEmpty()) {
+        assertEquals(new Coordinate(4, 4), move);
+        board.passTurn();
+      } else {
+        assertTrue(board.validMove(move, board.currentColor()));
+        board.makeMove(move);
+      }
+    }
+
+    Board large = new Board(10);
+    mcts.chooseMove(large, Disc.BLACK);
+    assertTrue(mcts.getLastPlayouts() > 0);
+    assertTrue(mcts.getPlayoutsPerSecond() > 0);
+    assertThrows(IllegalArgumentException.class, () -> new MonteCarloTreeSearch(1, 0));
+  }
+
+  @Test
+  public void testListMovesMatchesPossibleMoves() {
+    Random rand = new Random(17);
+    Reversi[] boards = {new Board(5), new FlatHexBoard(5), new SquareBoard(6),
+        new BitSquareBoard(6)};
+    for (Reversi board : boards) {
+      Geometry geometry = board.getGeometry();
+      int[] moves = new int[geometry.getCellCount()];
+      while (!board.isGameOver()) {
+        for (Disc player : new Disc[] {Disc.BLACK, Disc.WHITE}) {
+          int count = board.listMoves(player, moves);
+          int listed = 0;
+          for (int index = 0; index < geometry.getCellCount(); index++) {
+            if (board.countFlips(geometry.getPosition(index), player) > 0) {
+              assertEquals(index, moves[listed++]);
+            }
+          }
+          assertEquals(listed, count);
+        }
+        ArrayList<Position> possible = board.getPossibleMoves();
+        assertEquals(possible.size(), board.listMoves(board.currentColor(), moves));
+        if (possible.isEmpty()) {
+          board.passTurn();
+        } else {
+          board.makeMove(possible.get(rand.nextInt(possible.size())));
+        }
+      }
+      assertEquals(0, board.listMoves(Disc.EMPTY, moves));
+    }
+  }
+
+  /**
+   * Scores a position for the player to move by searching every line to the given depth without
+   * any pruning, the way the alpha-beta strategy scores it.
+   */
+  static int minimax(Reversi board, int depth, boolean passed) {
+    Disc player = board.currentColor();
+    Disc opponent = player == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+    int difference = board.getScore(player) - board.getScore(opponent);
+    if (depth == 0) {
+      return difference;
+    }
+    ArrayList<Position> moves = board.getPossibleMoves();
+    if (moves.isEmpty()) {
+      if (passed) {
+        return Integer.signum(difference) * AlphaBeta.WIN_SCORE + difference;
+      }
+      board.passTurn();
+      int score = -minimax(board, depth, true);
+      board.undoMove();
+      return score;
+    }
+    int best = Integer.MIN_VALUE;
+    for (Position move : moves) {
+      board.makeMove(move);
+      best = Math.max(best, -minimax(board, depth - 1, false));
+      board.undoMove();
+    }
+    return best;
+  }
+
+  @Test
+  public void testEndgameSolverFindsTheExactScore() {
+    Random random = new Random(16);
+    for (int game = 0; game < 6; game++) {
+      Reversi board = new Board(4);
+      while (board.getScore(Disc.EMPTY) > 9 && !board.isGameOver()) {
+        ArrayList<Position> moves = board.getPossibleMoves();
+        if (moves.isEmpty()) {
+          board.passTurn();
+        } else {
+          board.makeMove(moves.get(random.nextInt(moves.size())));
+        }
+      }
+      EndgameSolver solver = new EndgameSolver(new CaptureMost());
+      int exact = solveExactly(board, false);
+      SearchResult result = solver.solve(board);
+      assertEquals(exact, result.getScore());
+      assertEquals(Integer.signum(exact), solver.solveWinLossDraw(board).getScore());
+      if (board.getPossibleMoves().isEmpty()) {
+        assertEquals(new Coordinate(4, 4), result.getMove());
+      } else {
+        board.makeMove(result.getMove());
+        assertEquals(exact, -solveExactly(board, false));
+      }
+    }
+  }
+
+  @Test
+  public void testEndgameSolverLeavesEarlyMovesToItsFallback() {
+    Reversi board = new Board(4);
+    ReversiStratagy solver = new EndgameSolver(10, false, new CaptureMost());
+    assertEquals(new CaptureMost().chooseMove(board, Disc.BLACK),
+            solver.chooseMove(board, Disc.BLACK));
+    assertThrows(IllegalArgumentException.class,
+        () -> new EndgameSolver(-1, false, new CaptureMost()));
+    assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(null));
+  }
+
+  @Test
+  public void testOpeningBookAnswersTheSearchedMoves() throws IOException {
+    Path file = Files.createTempFile("opening", ".book");
+    try {
+      Reversi board = new Board(4);
+      int written = new OpeningBookBuilder(2, 3).build(board, file);
+      OpeningBook book = new OpeningBook(file, new CaptureMost());
+      assertEquals(written, book.getPositionCount());
+      AlphaBeta search = new AlphaBeta(3);
+      for (int ply = 0; ply <= 2; ply++) {
+        SearchResult result = search.search(board);
+        assertEquals(result.getMove(), book.lookup(board));
+        assertEquals(result.getScore(), book.getScore(board.getPositionHash()));
+        board.makeMove(board.getPossibleMoves().get(0));
+      }
+      assertEquals(null, book.lookup(board));
+      assertEquals(new CaptureMost().chooseMove(board, board.currentColor()),
+              book.chooseMove(board, board.currentColor()));
+      assertEquals(null, book.lookup(new SquareBoard(4)));
+      Files.write(file, new byte[] {1, 2, 3});
+      assertThrows(IOException.class, () -> new OpeningBook(file, new CaptureMost()));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testEvaluationTunerFitsSelfPlayResults() throws IOException {
+    Path directory = Files.createTempDirectory("weights");
+    Path positions = directory.resolve("square6.positions");
+    Path weights = directory.resolve(PatternEvaluator.weightsFileName(Geometry.square(6)));
+    try {
+      EvaluationTuner tuner = new EvaluationTuner(2, 1);
+      PatternEvaluator evaluator = new PatternEvaluator(directory);
+      Reversi board = new SquareBoard(6);
+      assertTrue(tuner.generate(evaluator, board, 20, 1, positions) > 20 * 20);
+      double[] errors = tuner.tune(evaluator, positions, 10);
+      assertEquals(11, errors.length);
+      assertTrue(errors[10] < errors[0]);
+      // tuned weights still score the colors' mirror images as each other's negation
+      assertEquals(0, evaluator.evaluate(board, Disc.BLACK));
+
+      evaluator.saveWeights(Geometry.square(6), weights);
+      PatternEvaluator loaded = new PatternEvaluator(directory);
+      int[][] tuned = evaluator.getWeights(Geometry.square(6));
+      for (int f = 0; f < tuned.length; f++) {
+        Assert.assertArrayEquals(tuned[f], loaded.getWeights(Geometry.square(6))[f]);
+      }
+      assertThrows(IOException.class, () -> tuner.tune(evaluator, weights, 1));
+    } finally {
+      Files.deleteIfExists(positions);
+      Files.deleteIfExists(weights);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  public void testNnueEvaluatorFollowsMovesAndFallsBack() throws IOException {
+    Path positions = Files.createTempFile("square6", ".positions");
+    Path network = Files.createTempFile("square6", ".network");
+    try {
+      new EvaluationTuner(1, 1).generate(new PatternEvaluator(), new SquareBoard(6), 10, 2,
+              positions);
+      double[] errors = new NetworkTrainer(8, 3).train(positions, 5, network);
+      assertTrue(errors[4] < errors[0]);
+      NnueEvaluator evaluator = new NnueEvaluator(network, new DiscCountEvaluator());
+      assertEquals(8, evaluator.getHiddenSize());
+      assertEquals(Geometry.square(6), evaluator.getGeometry());
+
+      Random rand = new Random(23);
+      Reversi board = new BitSquareBoard(6);
+      Evaluator attached = evaluator.attach(board);
+      int depth = 0;
+      while (!board.isGameOver()) {
+        int score = evaluator.evaluate(board, Disc.BLACK);
+        assertEquals(score, attached.evaluate(board, Disc.BLACK));
+        assertEquals(-score, attached.evaluate(board, Disc.WHITE));
+        ArrayList<Position> moves = board.getPossibleMoves();
+        if (depth > 0 && rand.nextInt(4) == 0) {
+          board.undoMove();
+          depth--;
+        } else if (moves.isEmpty()) {
+          board.passTurn();
+          depth++;
+        } else {
+          board.makeMove(moves.get(rand.nextInt(moves.size())));
+          depth++;
+        }
+      }
+
+      // other boards are left to the fallback
+      Reversi other = new SquareBoard(8);
+      other.makeMove(other.getPossibleMoves().get(0));
+      assertEquals(3, evaluator.attach(other).evaluate(other, Disc.BLACK));
+      assertEquals(-3, evaluator.evaluate(other, Disc.WHITE));
+      Files.write(network, new byte[] {1, 2, 3});
+      assertThrows(IOException.class, () -> new NnueEvaluator(network, new DiscCountEvaluator()));
+    } finally {
+      Files.delete(positions);
+      Files.delete(network);
+    }
+  }
+
+  /**
+   * Plays out every line of a game to the end, without any pruning, to check the searches.
+   *
+   * @return The final disc difference of the player to move under perfect play.
+   */
+  static int solveExactly(Reversi board, boolean passed) {
+    ArrayList<Position> moves = board.getPossibleMoves();
+    if (moves.isEmpty()) {
+      Disc player = board.currentColor();
+      Disc opponent = player == Disc.BLACK ? Disc.WHITE : Disc.BLACK;
+      if (passed) {
+        return board.getScore(player) - board.getScore(opponent);
+      }
+      board.passTurn();
+      int score = -solveExactly(board, true);
+      board.undoMove();
+      return score;
+    }
+    int best = Integer.MIN_VALUE;
+    for (Position move : moves) {
+      board.makeMove(move);
+      best = Math.max(best, -solveExactly(board, false));
+      board.undoMove();
+    }
+    return best;
+  }
 
 }
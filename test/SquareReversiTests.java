@@ -1,26 +1,71 @@
 import org.junit.Assert;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import controller.aistrat.AlphaBeta;
 import controller.aistrat.CaptureMost;
+import controller.aistrat.EndgameSolver;
+import controller.aistrat.SearchResult;
+import model.BitSquareBoard;
 import model.BoardMock;
 import model.Coordinate;
 import model.Disc;
+import model.GameState;
 import model.Position;
 import model.Reversi;
 import model.SquareBoard;
 import model.SquareBoardMock;
 import view.SquareBoardRenderer;
 
+/**
+ * Tests of square Reversi games, each run on every square board engine.
+ */
+@RunWith(Parameterized.class)
 public class SquareReversiTests {
+  private final IntFunction<Reversi> engine;
+
+  /**
+   * Creates the tests of one square board engine.
+   *
+   * @param name   The name of the engine, shown in the names of its tests.
+   * @param engine Creates an engine's board of the given size.
+   */
+  public SquareReversiTests(String name, IntFunction<Reversi> engine) {
+    this.engine = engine;
+  }
+
+  /**
+   * Lists the square board engines: the board keeping a map of cells and the bitboard.
+   *
+   * @return The name and board factory of each engine.
+   */
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> engines() {
+    return Arrays.asList(new Object[][] {
+        {"SquareBoard", (IntFunction<Reversi>) SquareBoard::new},
+        {"BitSquareBoard", (IntFunction<Reversi>) BitSquareBoard::new}});
+  }
+
+  private Reversi createBoard(int size) {
+    return engine.apply(size);
+  }
 
   @Test
   public void testSquareBoardIsCreatedCorrectly() {
-    Reversi newBoard = new SquareBoard(4);
+    Reversi newBoard = createBoard(4);
     SquareBoardRenderer br = new SquareBoardRenderer(newBoard);
 
     assertEquals(
@@ -32,7 +77,7 @@ public class SquareReversiTests {
 
   @Test
   public void testSquareBoardMake2MovesPlusCheckingForTurnPassing() {
-    Reversi newBoard = new SquareBoard(6);
+    Reversi newBoard = createBoard(6);
     newBoard.makeMove(new Coordinate(4, 2));
     newBoard.makeMove(new Coordinate(4, 1));
     SquareBoardRenderer br = new SquareBoardRenderer(newBoard);
@@ -48,7 +93,7 @@ public class SquareReversiTests {
 
   @Test
   public void testSquareBoardMake2MovesBySamePlayerByPassing(){
-    Reversi newBoard = new SquareBoard(6);
+    Reversi newBoard = createBoard(6);
     newBoard.makeMove(new Coordinate(4, 2));
     newBoard.passTurn();
     newBoard.makeMove(new Coordinate(1, 4));
@@ -67,7 +112,7 @@ public class SquareReversiTests {
 
   @Test
   public void testSquareBoardMake2MovesBySamePlayerByPassingAndThenGameOverTrue(){
-    Reversi newBoard = new SquareBoard(6);
+    Reversi newBoard = createBoard(6);
     newBoard.makeMove(new Coordinate(4, 2));
     newBoard.passTurn();
     newBoard.makeMove(new Coordinate(1, 4));
@@ -77,7 +122,7 @@ public class SquareReversiTests {
 
   @Test
   public void test2PassesMakesGameOverTrue(){
-    Reversi newBoard = new SquareBoard(6);
+    Reversi newBoard = createBoard(6);
     newBoard.passTurn();
     newBoard.passTurn();
     assertTrue(newBoard.isGameOver());
@@ -85,7 +130,7 @@ public class SquareReversiTests {
 
   @Test
   public void test2PassesNonConsecutiveDoesntMeanGameOver(){
-    Reversi newBoard = new SquareBoard(6);
+    Reversi newBoard = createBoard(6);
     newBoard.makeMove(new Coordinate(4, 2));
     newBoard.makeMove(new Coordinate(4, 3));
     newBoard.passTurn();
@@ -280,4 +325,139 @@ public class SquareReversiTests {
                     "Successful move at X0Y1\n");
   }
 
+  @Test
+  public void testBoardRejectsIllegalMoves() {
+    Reversi newBoard = createBoard(6);
+    assertThrows(IllegalArgumentException.class,
+        () -> newBoard.makeMove(new Coordinate(2, 2)));
+    assertThrows(IllegalArgumentException.class,
+        () -> newBoard.makeMove(new Coordinate(0, 0)));
+    assertThrows(IllegalArgumentException.class,
+        () -> newBoard.makeMove(new Coordinate(6, 0)));
+    assertFalse(newBoard.validMove(new Coordinate(0, 0), Disc.BLACK));
+  }
+
+  @Test
+  public void testBoardMatchesSquareBoardInRandomGames() {
+    Random rand = new Random(7);
+    for (int size : new int[]{4, 6, 8, 10, 12}) {
+      for (int game = 0; game < 5; game++) {
+        Reversi slow = new SquareBoard(size);
+        Reversi fast = createBoard(size);
+        while (!slow.isGameOver()) {
+          assertFalse(fast.isGameOver());
+          ArrayList<Position> moves = slow.getPossibleMoves();
+          assertEquals(moves, fast.getPossibleMoves());
+          if (moves.isEmpty()) {
+            slow.passTurn();
+            fast.passTurn();
+          } else {
+            Position move = moves.get(rand.nextInt(moves.size()));
+            assertEquals(slow.checkMove(slow, move), fast.checkMove(fast, move));
+            slow.makeMove(move);
+            fast.makeMove(move);
+          }
+          assertEquals(new SquareBoardRenderer(slow).toString(),
+                  new SquareBoardRenderer(fast).toString());
+          assertEquals(slow.getScore(Disc.BLACK), fast.getScore(Disc.BLACK));
+          assertEquals(slow.getScore(Disc.WHITE), fast.getScore(Disc.WHITE));
+          assertEquals(slow.getPositionHash(), fast.getPositionHash());
+        }
+        assertTrue(fast.isGameOver());
+        assertEquals(slow.getState(), fast.getState());
+      }
+    }
+  }
+
+  @Test
+  public void testUndoMoveRestoresEarlierPositions() {
+    Random rand = new Random(3);
+    Reversi board = createBoard(8);
+    assertThrows(IllegalStateException.class, board::undoMove);
+    ArrayList<String> renders = new ArrayList<>();
+    ArrayList<Disc> turns = new ArrayList<>();
+    while (!board.isGameOver()) {
+      renders.add(new SquareBoardRenderer(board).toString());
+      turns.add(board.currentColor());
+      ArrayList<Position> moves = board.getPossibleMoves();
+      if (moves.isEmpty()) {
+        board.passTurn();
+      } else {
+        board.makeMove(moves.get(rand.nextInt(moves.size())));
+      }
+    }
+    for (int move = renders.size() - 1; move >= 0; move--) {
+      board.undoMove();
+      assertEquals(renders.get(move), new SquareBoardRenderer(board).toString());
+      assertEquals(turns.get(move), board.currentColor());
+      assertFalse(board.isGameOver());
+    }
+    assertEquals(2, board.getScore(Disc.BLACK));
+    assertThrows(IllegalStateException.class, board::undoMove);
+  }
+
+  @Test
+  public void testGameOverIsRecheckedAfterTheBoardChanges() {
+    Reversi board = createBoard(4);
+    assertFalse(board.isGameOver());
+    board.placeDisc(2, 1, Disc.BLACK);
+    board.placeDisc(1, 2, Disc.BLACK);
+    assertTrue(board.isGameOver());
+    assertEquals(GameState.BLACKWIN, board.getState());
+    board.placeDisc(2, 1, Disc.WHITE);
+    assertFalse(board.isGameOver());
+    board.passTurn();
+    board.passTurn();
+    assertTrue(board.isGameOver());
+    board.undoMove();
+    assertFalse(board.isGameOver());
+  }
+
+  @Test
+  public void testAlphaBetaPlaysWholeSquareGames() {
+    Reversi board = createBoard(6);
+    AlphaBeta search = new AlphaBeta(3);
+    while (!board.isGameOver()) {
+      SearchResult result = search.search(board);
+      assertEquals(ReversiTests.minimax(board, 3, false), result.getScore());
+      if (board.getPossibleMoves().isEmpty()) {
+        assertEquals(new Coordinate(6, 6), result.getMove());
+        board.passTurn();
+      } else {
+        board.makeMove(result.getMove());
+      }
+    }
+    assertEquals(36, board.getScore(Disc.BLACK) + board.getScore(Disc.WHITE)
+            + board.getScore(Disc.EMPTY));
+  }
+
+  @Test
+  public void testEndgameSolverFindsTheExactScore() {
+    Random random = new Random(20);
+    for (int game = 0; game < 6; game++) {
+      // 8 by 8 boards are solved on bit masks, larger ones on a copy of the game
+      int size = game % 2 == 0 ? 8 : 10;
+      Reversi board = createBoard(size);
+      while (board.getScore(Disc.EMPTY) > 9 && !board.isGameOver()) {
+        ArrayList<Position> moves = board.getPossibleMoves();
+        if (moves.isEmpty()) {
+          board.passTurn();
+        } else {
+          board.makeMove(moves.get(random.nextInt(moves.size())));
+        }
+      }
+      EndgameSolver solver = new EndgameSolver(new CaptureMost());
+      int exact = ReversiTests.solveExactly(board, false);
+      SearchResult result = solver.solve(board);
+      assertEquals(exact, result.getScore());
+      assertEquals(Integer.signum(exact), solver.solveWinLossDraw(board).getScore());
+      if (board.getPossibleMoves().isEmpty()) {
+        assertEquals(new Coordinate(size, size), result.getMove());
+      } else {
+        board.makeMove(result.getMove());
+        assertEquals(exact, -ReversiTests.solveExactly(board, false));
+      }
+    }
+  }
+
 }
@@ -0,0 +1,138 @@
+package controller.aistrat;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.Board;
+import model.Position;
+import model.Reversi;
+import model.SquareBoard;
+
+/**
+ * Tests of the move orderer, which is package-private to the strategies that search.
+ */
+public class MoveOrdererTests {
+
+  @Test
+  public void testHashMoveAndKillersComeFirst() {
+    Reversi board = new Board(6);
+    int[] listed = new int[board.getGeometry().getCellCount()];
+    int count = board.listMoves(board.currentColor(), listed);
+    assertTrue(count >= 4);
+    int a = listed[0];
+    int b = listed[1];
+    int c = listed[2];
+    int d = listed[3];
+    MoveOrderer orderer = new MoveOrderer(board.getGeometry());
+
+    // with no history the sort is stable, keeping the listed order
+    assertEquals(listOf(listed, count), order(orderer, board, listed, count, 0, -1));
+    List<Integer> expected = listOf(listed, count);
+    expected.remove(Integer.valueOf(d));
+    expected.add(0, d);
+    assertEquals(expected, order(orderer, board, listed, count, 0, d));
+
+    // the newest killer of a ply comes first, and killers are only kept for their ply
+    orderer.cutoff(a, 2, 1);
+    orderer.cutoff(b, 2, 1);
+    expected = listOf(listed, count);
+    expected.removeAll(List.of(a, b, d));
+    expected.addAll(0, List.of(d, b, a));
+    assertEquals(expected, order(orderer, board, listed, count, 2, d));
+    // a killer again at its ply doesn't push the other one out
+    orderer.cutoff(b, 2, 1);
+    assertEquals(List.of(b, a), order(orderer, board, listed, count, 2, -1).subList(0, 2));
+    orderer.cutoff(c, 2, 1);
+    assertEquals(List.of(c, b, a), order(orderer, board, listed, count, 2, -1).subList(0, 3));
+    // elsewhere the same cutoffs only count as history: b twice, a and c once each
+    assertEquals(List.of(b, a, c), order(orderer, board, listed, count, 0, -1).subList(0, 3));
+  }
+
+  @Test
+  public void testHistoryIsHalvedPastItsLimit() {
+    Reversi board = new Board(6);
+    int[] listed = new int[board.getGeometry().getCellCount()];
+    int count = board.listMoves(board.currentColor(), listed);
+    int a = listed[0];
+    int b = listed[1];
+    int c = listed[2];
+    MoveOrderer orderer = new MoveOrderer(board.getGeometry());
+
+    orderer.cutoff(a, 10, 300);
+    assertEquals(List.of(a), order(orderer, board, listed, count, 0, -1).subList(0, 1));
+    // a cutoff 725 deep passes the limit, halving every history, so a is left with 45000
+    orderer.cutoff(c, 11, 725);
+    orderer.cutoff(b, 12, 250);
+    assertEquals(List.of(c, b, a), order(orderer, board, listed, count, 0, -1).subList(0, 3));
+  }
+
+  @Test
+  public void testOrderingSavesNodesWithoutChangingTheScore() {
+    Random rand = new Random(19);
+    Reversi[] boards = {new Board(5), new SquareBoard(8)};
+    for (Reversi board : boards) {
+      long orderedNodes = 0;
+      long plainNodes = 0;
+      for (int move = 0; move < 8; move++) {
+        SearchResult ordered = new NegamaxSearch(SearchBoards.copyOf(board),
+                new DiscCountEvaluator(), null).searchRoot(5);
+        SearchResult plain = new NegamaxSearch(SearchBoards.copyOf(board),
+                new DiscCountEvaluator(), null, new Unordered(board)).searchRoot(5);
+        assertEquals(plain.getScore(), ordered.getScore());
+        orderedNodes += ordered.getNodes();
+        plainNodes += plain.getNodes();
+        ArrayList<Position> moves = board.getPossibleMoves();
+        if (moves.isEmpty()) {
+          board.passTurn();
+        } else {
+          board.makeMove(moves.get(rand.nextInt(moves.size())));
+        }
+      }
+      assertTrue(orderedNodes < plainNodes);
+    }
+  }
+
+  /**
+   * Orders a copy of the listed moves, as a search would with nothing deeper to search, so the
+   * moves are not played out.
+   */
+  private static List<Integer> order(MoveOrderer orderer, Reversi board, int[] listed,
+                                     int count, int ply, int hashMove) {
+    int[] moves = listed.clone();
+    orderer.order(board, moves, count, ply, 0, hashMove);
+    return listOf(moves, count);
+  }
+
+  private static List<Integer> listOf(int[] moves, int count) {
+    List<Integer> list = new ArrayList<Integer>();
+    for (int i = 0; i < count; i++) {
+      list.add(moves[i]);
+    }
+    return list;
+  }
+
+  /**
+   * An orderer that leaves the moves in the order they are listed.
+   */
+  private static final class Unordered extends MoveOrderer {
+    private Unordered(Reversi board) {
+      super(board.getGeometry());
+    }
+
+    @Override
+    void order(Reversi board, int[] moves, int count, int ply, int depth, int hashMove) {
+      // the moves stay as listed
+    }
+
+    @Override
+    void cutoff(int move, int ply, int depth) {
+      // nothing is learned
+    }
+  }
+}